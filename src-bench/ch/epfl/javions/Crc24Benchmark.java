@@ -0,0 +1,110 @@
+package ch.epfl.javions;
+
+import java.util.Random;
+
+/**
+ * Measures the time taken by the CRC24 of a 14-byte frame, computed bit by bit, byte by byte through a table,
+ * eight bytes at a time on an array, and from a frame packed into two longs, after checking that the four
+ * give the same results. Each measure is repeated ROUNDS times, the first ones warming the JIT up.
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class Crc24Benchmark {
+    private static final int FRAMES = 1 << 16;
+    private static final int FRAME_LENGTH = 14;
+    private static final int ROUNDS = 5;
+    private static final int BITWISE_PASSES = 4, TABLE_PASSES = 40;
+    private static final int CHECKED_RANGES = 100_000, CHECKED_RANGE_MAX_LENGTH = 40;
+
+    private Crc24Benchmark() {}
+
+    public static void main(String[] args) {
+        Crc24 crc24 = new Crc24(Crc24.GENERATOR);
+        Random random = new Random(2023);
+        checkRanges(crc24, random);
+
+        byte[][] frames = new byte[FRAMES][FRAME_LENGTH];
+        long[] highs = new long[FRAMES], lows = new long[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            random.nextBytes(frames[i]);
+            ByteString bytes = new ByteString(frames[i]);
+            highs[i] = bytes.bytesInRange(0, Long.BYTES);
+            lows[i] = bytes.bytesInRange(Long.BYTES, FRAME_LENGTH);
+            if (crc24.crc(highs[i], lows[i]) != crc24.crc(frames[i]))
+                throw new AssertionError("packed frame " + i);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            int sink = 0;
+            long t0 = System.nanoTime();
+            for (int pass = 0; pass < BITWISE_PASSES; pass++) {
+                for (byte[] frame : frames)
+                    sink += bitwise(frame, 0, FRAME_LENGTH);
+            }
+            long t1 = System.nanoTime();
+            for (int pass = 0; pass < TABLE_PASSES; pass++) {
+                for (byte[] frame : frames) {
+                    int crc = 0;
+                    for (byte b : frame)
+                        crc = crc24.update(crc, b);
+                    sink += crc;
+                }
+            }
+            long t2 = System.nanoTime();
+            for (int pass = 0; pass < TABLE_PASSES; pass++) {
+                for (byte[] frame : frames)
+                    sink += crc24.crc(frame);
+            }
+            long t3 = System.nanoTime();
+            for (int pass = 0; pass < TABLE_PASSES; pass++) {
+                for (int i = 0; i < FRAMES; i++)
+                    sink += crc24.crc(highs[i], lows[i]);
+            }
+            long t4 = System.nanoTime();
+            System.out.printf("round %d: bitwise %.1f, byte table %.1f, slicing-by-8 %.1f, packed %.1f ns/frame (%d)%n",
+                    round,
+                    (t1 - t0) / ((double) BITWISE_PASSES * FRAMES),
+                    (t2 - t1) / ((double) TABLE_PASSES * FRAMES),
+                    (t3 - t2) / ((double) TABLE_PASSES * FRAMES),
+                    (t4 - t3) / ((double) TABLE_PASSES * FRAMES),
+                    sink);
+        }
+    }
+
+    /**
+     * Checks that the CRC24 of random ranges of random arrays is the one computed bit by bit
+     *
+     * @param crc24  the calculator checked
+     * @param random the generator of the arrays and ranges
+     * @throws AssertionError if a CRC24 differs
+     */
+    private static void checkRanges(Crc24 crc24, Random random) {
+        for (int t = 0; t < CHECKED_RANGES; t++) {
+            byte[] bytes = new byte[random.nextInt(CHECKED_RANGE_MAX_LENGTH)];
+            random.nextBytes(bytes);
+            int offset = random.nextInt(bytes.length + 1);
+            int length = random.nextInt(bytes.length - offset + 1);
+            if (crc24.crc(bytes, offset, length) != bitwise(bytes, offset, length))
+                throw new AssertionError("range " + t);
+        }
+    }
+
+    /**
+     * @param bytes  the table of bytes
+     * @param offset the index of the first byte of the range
+     * @param length the number of bytes of the range
+     * @return the CRC24 of the given range, computed bit by bit, then augmented with 24 zero bits
+     */
+    private static int bitwise(byte[] bytes, int offset, int length) {
+        int generator = Crc24.GENERATOR & 0xFFFFFF;
+        int crc = 0;
+        for (int k = offset; k < offset + length; k++) {
+            for (int i = Byte.SIZE - 1; i >= 0; i--)
+                crc = ((crc << 1) | (bytes[k] >> i & 1)) ^ ((crc >> 23 & 1) == 1 ? generator : 0);
+        }
+        for (int i = 0; i < 24; i++)
+            crc = (crc << 1) ^ ((crc >> 23 & 1) == 1 ? generator : 0);
+        return crc & 0xFFFFFF;
+    }
+}
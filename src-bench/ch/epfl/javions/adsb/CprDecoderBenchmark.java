@@ -0,0 +1,160 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.GeoPos;
+import ch.epfl.javions.Units;
+
+import java.util.Random;
+
+/**
+ * Measures the time taken by the global decoding of a pair of CPR positions, whose number of longitude
+ * zones is found in the table of transition latitudes of CprDecoder, against the same decoding computing it
+ * with acos and cos², as CprDecoder did before, after checking that the two give the same results,
+ * both on random pairs and on pairs encoding the same position. Each measure is repeated ROUNDS times,
+ * the first ones warming the JIT up.
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class CprDecoderBenchmark {
+    private static final int PAIRS = 1 << 12;
+    private static final int CHECKED_PAIRS = 2_000_000;
+    private static final int ROUNDS = 5;
+    private static final int PASSES = 200;
+    private static final double CPR_SCALE = 1 << 17;
+    private static final double DELTA0 = 1d / 60, DELTA1 = 1d / 59;
+
+    private CprDecoderBenchmark() {}
+
+    public static void main(String[] args) {
+        Random random = new Random(2023);
+        double[][] checked = new double[4][1];
+        for (int t = 0; t < CHECKED_PAIRS; t++) {
+            if (t % 2 == 0)
+                randomPair(random, checked, 0);
+            else
+                consistentPair(random, checked, 0);
+            for (int mostRecent = 0; mostRecent <= 1; mostRecent++) {
+                long table = CprDecoder.decodePositionPacked(checked[0][0], checked[1][0], checked[2][0],
+                        checked[3][0], mostRecent);
+                long trigonometric = decodeTrigonometric(checked[0][0], checked[1][0], checked[2][0],
+                        checked[3][0], mostRecent);
+                if (table != trigonometric)
+                    throw new AssertionError("pair " + t);
+            }
+        }
+
+        double[][] pairs = new double[4][PAIRS];
+        for (int i = 0; i < PAIRS; i++)
+            consistentPair(random, pairs, i);
+        double[] x0 = pairs[0], y0 = pairs[1], x1 = pairs[2], y1 = pairs[3];
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long sink = 0;
+            long t0 = System.nanoTime();
+            for (int pass = 0; pass < PASSES; pass++) {
+                for (int i = 0; i < PAIRS; i++)
+                    sink += decodeTrigonometric(x0[i], y0[i], x1[i], y1[i], i & 1);
+            }
+            long t1 = System.nanoTime();
+            for (int pass = 0; pass < PASSES; pass++) {
+                for (int i = 0; i < PAIRS; i++)
+                    sink += CprDecoder.decodePositionPacked(x0[i], y0[i], x1[i], y1[i], i & 1);
+            }
+            long t2 = System.nanoTime();
+            for (int pass = 0; pass < PASSES; pass++) {
+                for (int i = 0; i < PAIRS; i++) {
+                    GeoPos position = CprDecoder.decodePosition(x0[i], y0[i], x1[i], y1[i], i & 1);
+                    if (position != null)
+                        sink += position.latitudeT32();
+                }
+            }
+            long t3 = System.nanoTime();
+            System.out.printf("round %d: trigonometric %.1f, table %.1f, table with GeoPos %.1f ns/pair (%d)%n",
+                    round,
+                    (t1 - t0) / ((double) PASSES * PAIRS),
+                    (t2 - t1) / ((double) PASSES * PAIRS),
+                    (t3 - t2) / ((double) PASSES * PAIRS),
+                    sink);
+        }
+    }
+
+    /**
+     * Places at the given index of the given arrays the local coordinates of an even and an odd message,
+     * drawn at random
+     *
+     * @param random the generator
+     * @param pairs  the arrays of the x0, y0, x1 and y1 coordinates
+     * @param i      the index
+     */
+    private static void randomPair(Random random, double[][] pairs, int i) {
+        for (double[] coordinates : pairs)
+            coordinates[i] = random.nextInt(1 << 17) / CPR_SCALE;
+    }
+
+    /**
+     * Places at the given index of the given arrays the local coordinates of an even and an odd message
+     * encoding the same random position
+     *
+     * @param random the generator
+     * @param pairs  the arrays of the x0, y0, x1 and y1 coordinates
+     * @param i      the index
+     */
+    private static void consistentPair(Random random, double[][] pairs, int i) {
+        double latitude = (random.nextDouble() - 0.5) * 0.48;
+        double longitude = random.nextDouble() - 0.5;
+        for (int parity = 0; parity <= 1; parity++) {
+            double delta = parity == 0 ? DELTA0 : DELTA1;
+            double y = fraction(latitude / delta);
+            int zones = Math.max(trigonometricZones(latitude) - parity, 1);
+            double x = fraction(longitude * zones);
+            pairs[2 * parity][i] = Math.floor(x * CPR_SCALE) / CPR_SCALE;
+            pairs[2 * parity + 1][i] = Math.floor(y * CPR_SCALE) / CPR_SCALE;
+        }
+    }
+
+    private static double fraction(double value) {
+        return value - Math.floor(value);
+    }
+
+    /**
+     * The global decoding of CprDecoder, with the number of longitude zones computed with acos and cos²
+     *
+     * @param x0 and y0 being the local longitude and latitude of an even message,
+     * @param x1 and y1 those of an odd message
+     * @param mostRecent the index of the most recent message (0 or 1)
+     * @return the packed position, or CprDecoder.NO_POSITION
+     */
+    private static long decodeTrigonometric(double x0, double y0, double x1, double y1, int mostRecent) {
+        int zLat = (int) Math.rint(y0 * 59 - y1 * 60);
+        int zLat0 = zLat < 0 ? zLat + 60 : zLat, zLat1 = zLat < 0 ? zLat + 59 : zLat;
+        double lat0 = wrap(DELTA0 * (zLat0 + y0)), lat1 = wrap(DELTA1 * (zLat1 + y1));
+        int zLong0 = trigonometricZones(lat0);
+        if (zLong0 != trigonometricZones(lat1) && zLong0 != 1)
+            return CprDecoder.NO_POSITION;
+        int zLong1 = zLong0 == 1 ? 1 : zLong0 - 1;
+        int zLong = (int) Math.rint(x0 * zLong1 - x1 * zLong0);
+        double long0 = wrap(((zLong < 0 ? zLong + zLong0 : zLong) + x0) / zLong0);
+        double long1 = wrap(((zLong < 0 ? zLong + zLong1 : zLong) + x1) / zLong1);
+        double lat = mostRecent == 0 ? lat0 : lat1, lon = mostRecent == 0 ? long0 : long1;
+        int latitudeT32 = (int) Math.rint(Units.convert(lat, Units.Angle.TURN, Units.Angle.T32));
+        if (!GeoPos.isValidLatitudeT32(latitudeT32))
+            return CprDecoder.NO_POSITION;
+        int longitudeT32 = (int) Math.rint(Units.convert(lon, Units.Angle.TURN, Units.Angle.T32));
+        return ((long) longitudeT32 << Integer.SIZE) | Integer.toUnsignedLong(latitudeT32);
+    }
+
+    private static double wrap(double turns) {
+        return turns >= 0.5 ? turns - 1 : turns;
+    }
+
+    /**
+     * @param latitude the latitude, in turns
+     * @return the number of longitude zones of an even message at the given latitude, computed as
+     * floor(2π / acos(1 - (1 - cos(2π * DELTA0)) / cos²(latitude))), or 1 if the arc cosine is not defined
+     */
+    private static int trigonometricZones(double latitude) {
+        double cos = Math.cos(Units.convertFrom(latitude, Units.Angle.TURN));
+        double a = Math.acos(1 - (1 - Math.cos(2 * Math.PI * DELTA0)) / (cos * cos));
+        return Double.isNaN(a) ? 1 : (int) Math.floor(2 * Math.PI / a);
+    }
+}
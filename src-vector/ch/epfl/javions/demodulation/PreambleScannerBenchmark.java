@@ -0,0 +1,87 @@
+package ch.epfl.javions.demodulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures the time taken by the scalar and the vector preamble scanners to scan synthetic power samples,
+ * made of noise and of a preamble every few hundred positions, segment by segment as AdsbDemodulator does,
+ * after checking that the two find the same candidates and peaks. Each measure is repeated ROUNDS times,
+ * the first ones warming the JIT up.
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class PreambleScannerBenchmark {
+    private static final int POSITIONS = 1 << 20;
+    private static final int SEGMENT_SIZE = 1 << 13;
+    private static final int NOISE_POWER = 1_000, PEAK_POWER = 40_000;
+    private static final int PREAMBLE_SPACING = 600;
+    private static final int ROUNDS = 5;
+    private static final int PASSES = 40;
+
+    private PreambleScannerBenchmark() {}
+
+    public static void main(String[] args) {
+        int[] power = power(new Random(2023));
+        int[] scalarCandidates = new int[SEGMENT_SIZE], vectorCandidates = new int[SEGMENT_SIZE];
+        PreambleScanner scalar = new ScalarPreambleScanner(), vector = new VectorPreambleScanner();
+        for (int from = 1; from < POSITIONS; from += SEGMENT_SIZE) {
+            int previousSum = PreambleScanner.peakSum(power, from - 1);
+            int scalarCount = scalar.scan(power, from, from, from + SEGMENT_SIZE, previousSum, scalarCandidates, 0);
+            int vectorCount = vector.scan(power, from, from, from + SEGMENT_SIZE, previousSum, vectorCandidates, 0);
+            if (scalar.peakCount() != vector.peakCount()
+                    || !Arrays.equals(scalarCandidates, 0, scalarCount, vectorCandidates, 0, vectorCount))
+                throw new AssertionError("segment at " + from);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long sink = 0;
+            long t0 = System.nanoTime();
+            for (int pass = 0; pass < PASSES; pass++)
+                sink += scanAll(scalar, power, scalarCandidates);
+            long t1 = System.nanoTime();
+            for (int pass = 0; pass < PASSES; pass++)
+                sink += scanAll(vector, power, vectorCandidates);
+            long t2 = System.nanoTime();
+            System.out.printf("round %d: scalar %.2f, vector %.2f ns/position (%d)%n",
+                    round,
+                    (t1 - t0) / ((double) PASSES * POSITIONS),
+                    (t2 - t1) / ((double) PASSES * POSITIONS),
+                    sink);
+        }
+    }
+
+    /**
+     * @param random the generator of the noise
+     * @return POSITIONS + 1 positions of power samples, followed by the LOOK_AHEAD ones needed to scan them,
+     * made of exponentially distributed noise and of a preamble every PREAMBLE_SPACING positions
+     */
+    private static int[] power(Random random) {
+        int[] power = new int[POSITIONS + 1 + PreambleScanner.LOOK_AHEAD];
+        for (int i = 0; i < power.length; i++)
+            power[i] = (int) (-NOISE_POWER * Math.log(1 - random.nextDouble()));
+        for (int start = PREAMBLE_SPACING; start + PreambleScanner.LOOK_AHEAD < power.length;
+             start += PREAMBLE_SPACING) {
+            for (int peak : PreambleScanner.PEAK_INDEXES) {
+                for (int i = 0; i < 5; i++)
+                    power[start + peak + i] += PEAK_POWER;
+            }
+        }
+        return power;
+    }
+
+    /**
+     * @param scanner    the scanner
+     * @param power      the power samples
+     * @param candidates the array in which the candidates of a segment are placed
+     * @return the total number of candidates found by the given scanner in the segments of the power samples
+     */
+    private static int scanAll(PreambleScanner scanner, int[] power, int[] candidates) {
+        int total = 0;
+        for (int from = 1; from < POSITIONS; from += SEGMENT_SIZE)
+            total += scanner.scan(power, from, from, from + SEGMENT_SIZE, PreambleScanner.peakSum(power, from - 1),
+                    candidates, 0);
+        return total;
+    }
+}
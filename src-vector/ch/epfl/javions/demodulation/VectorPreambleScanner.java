@@ -0,0 +1,64 @@
+package ch.epfl.javions.demodulation;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static ch.epfl.javions.demodulation.PreambleScanner.peakSum;
+
+/**
+ * Represents a preamble scanner testing as many positions at once as there are lanes
+ * in the preferred vector species; it is only loaded when the Vector API is available.
+ * It is kept out of the main source root as it requires --add-modules jdk.incubator.vector
+ * both to compile and to run, see src-vector/README.md
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+final class VectorPreambleScanner implements PreambleScanner {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private int peakCount;
+
+    @Override
+    public int scan(int[] power, int base, int from, int to, int previousSum, int[] candidates, int count) {
+        if (to <= from) {
+            peakCount = 0;
+            return count;
+        }
+        long counts = ScalarPreambleScanner.scanRange(power, base, from + 1, from, previousSum, candidates, count);
+        count = ScalarPreambleScanner.candidateCount(counts);
+        int peaks = ScalarPreambleScanner.peakCount(counts);
+        int i = from + 1;
+        for (int upperBound = to - SPECIES.length(); i <= upperBound; i += SPECIES.length()) {
+            IntVector current = sum(power, i, PEAK_INDEXES, 0);
+            VectorMask<Integer> peakLanes = current.compare(VectorOperators.GT, sum(power, i, PEAK_INDEXES, -1))
+                    .and(current.compare(VectorOperators.GT, sum(power, i, PEAK_INDEXES, 1)));
+            if (peakLanes.anyTrue()) {
+                peaks += peakLanes.trueCount();
+                IntVector valley = sum(power, i, VALLEY_INDEXES, 0);
+                long lanes = peakLanes.and(current.compare(VectorOperators.GE, valley.mul(2))).toLong();
+                while (lanes != 0) {
+                    candidates[count++] = i + Long.numberOfTrailingZeros(lanes) - base;
+                    lanes &= lanes - 1;
+                }
+            }
+        }
+        counts = ScalarPreambleScanner.scanRange(power, base, to, i, peakSum(power, i - 1), candidates, count);
+        peakCount = peaks + ScalarPreambleScanner.peakCount(counts);
+        return ScalarPreambleScanner.candidateCount(counts);
+    }
+
+    @Override
+    public int peakCount() {
+        return peakCount;
+    }
+
+    private static IntVector sum(int[] power, int i, int[] indexes, int shift) {
+        IntVector sum = IntVector.fromArray(SPECIES, power, i + shift + indexes[0]);
+        for (int k = 1; k < indexes.length; k++)
+            sum = sum.add(IntVector.fromArray(SPECIES, power, i + shift + indexes[k]));
+        return sum;
+    }
+}
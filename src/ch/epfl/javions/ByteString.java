@@ -22,7 +22,30 @@ public final class ByteString {
      *      the bytes array which will help build the byteString
      */
     public ByteString(byte[] bytes) {
-        byteString = bytes.clone();
+        this(bytes, true);
+    }
+
+    /**
+     * Builds a byte string from bytes packed into two longs, in a single array that is not copied
+     *
+     * @param size the number of bytes of the string, at least Long.BYTES and at most 2 * Long.BYTES
+     * @param high the first Long.BYTES bytes, in big-endian order
+     * @param low  the size - Long.BYTES following bytes, in big-endian order in its least significant bytes
+     * @throws IllegalArgumentException if the size is not valid
+     * @return the byte string
+     */
+    public static ByteString ofPackedBytes(int size, long high, long low) {
+        Preconditions.checkArgument(Long.BYTES <= size && size <= 2 * Long.BYTES);
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < Long.BYTES; i++)
+            bytes[i] = (byte) (high >>> (Byte.SIZE * (Long.BYTES - 1 - i)));
+        for (int i = Long.BYTES; i < size; i++)
+            bytes[i] = (byte) (low >>> (Byte.SIZE * (size - 1 - i)));
+        return new ByteString(bytes, false);
+    }
+
+    private ByteString(byte[] bytes, boolean copied) {
+        byteString = copied ? bytes.clone() : bytes;
     }
 
     /**
@@ -1,5 +1,7 @@
 package ch.epfl.javions;
 
+import java.util.Objects;
+
 /**
  * @author Andrei Pana 361249
  * @author David Fota 355816
@@ -11,12 +13,19 @@ public final class Crc24 {
      * the least significant 24 bits of the generator used to calculate the CRC24 of messages ADS-B
      */
     public static int GENERATOR = 16774153;
-    private final int generator;
-    private final int[] table;
     private static final int GENERATOR_MASK = 0xFFFFFF;
     private static final int BYTE_MASK = 0xFF;
     private static final int CRC_BITS = 24;
     private static final int TABLE_SIZE = 256;
+    /** the number of bytes processed at once, each one through a table of its own */
+    private static final int SLICES = 8;
+    /** the number of bytes of a packed frame held in the low long */
+    private static final int LOW_BYTES = 6;
+    /**
+     * the SLICES tables, one after the other: the entry i of the table k is the CRC of the byte i
+     * followed by k zero bytes, i.e. the remainder of i * x^(24 + 8k) divided by the generator
+     */
+    private final int[] tables;
 
     /**
      * Public constructor for the Crc24 class
@@ -26,8 +35,7 @@ public final class Crc24 {
      */
 
     public Crc24(int generator) {
-        this.generator = generator & GENERATOR_MASK;
-        table = buildTable(this.generator);
+        tables = buildTables(generator & GENERATOR_MASK);
     }
 
     /**
@@ -37,15 +45,73 @@ public final class Crc24 {
      * @return the CRC24
      */
     public int crc(byte[] bytes) {
+        return crc(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Calculates the CRC24 of the given range of the given table, eight bytes at a time
+     *
+     * @param bytes  the table of bytes
+     * @param offset the index of the first byte of the range
+     * @param length the number of bytes of the range
+     * @return the CRC24
+     * @throws IndexOutOfBoundsException if the range is not contained in the table
+     */
+    public int crc(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        int[] t = tables;
         int crc = 0;
-        for (byte b : bytes) {
-            int a = b & BYTE_MASK;
-            crc = ((crc << Byte.SIZE) | a) ^ table[getMostSignificantByte(crc)];
-        }
-        for (int i = 0; i < 3; i++) {
-            crc = ((crc << Byte.SIZE)) ^ table[getMostSignificantByte(crc)];
+        int i = offset, end = offset + length;
+        for (int sliceEnd = end - SLICES; i <= sliceEnd; i += SLICES) {
+            crc = t[7 * TABLE_SIZE + (((crc >>> 16) ^ bytes[i]) & BYTE_MASK)]
+                    ^ t[6 * TABLE_SIZE + (((crc >>> 8) ^ bytes[i + 1]) & BYTE_MASK)]
+                    ^ t[5 * TABLE_SIZE + ((crc ^ bytes[i + 2]) & BYTE_MASK)]
+                    ^ t[4 * TABLE_SIZE + (bytes[i + 3] & BYTE_MASK)]
+                    ^ t[3 * TABLE_SIZE + (bytes[i + 4] & BYTE_MASK)]
+                    ^ t[2 * TABLE_SIZE + (bytes[i + 5] & BYTE_MASK)]
+                    ^ t[TABLE_SIZE + (bytes[i + 6] & BYTE_MASK)]
+                    ^ t[bytes[i + 7] & BYTE_MASK];
         }
-        return crc_bitwise(generator, bytes);
+        for (; i < end; i++)
+            crc = update(crc, bytes[i]);
+        return crc;
+    }
+
+    /**
+     * Updates the CRC24 of a sequence of bytes with the byte following them, so that the CRC24 of a frame
+     * can be computed as its bytes are produced, starting from 0, the CRC24 of the empty sequence
+     *
+     * @param crc the CRC24 of the bytes preceding the given one
+     * @param b   the byte
+     * @return the CRC24 of the bytes followed by the given one
+     */
+    public int update(int crc, byte b) {
+        return ((crc << Byte.SIZE) & GENERATOR_MASK) ^ tables[((crc >>> 16) ^ b) & BYTE_MASK];
+    }
+
+    /**
+     * Calculates the CRC24 of a frame of 14 bytes packed in two longs
+     *
+     * @param high the bytes 0 to 7 of the frame, in big-endian order
+     * @param low  the bytes 8 to 13 of the frame, in big-endian order in its 48 least significant bits
+     * @return the CRC24
+     */
+    public int crc(long high, long low) {
+        int[] t = tables;
+        int crc = t[7 * TABLE_SIZE + (int) (high >>> 56)]
+                ^ t[6 * TABLE_SIZE + ((int) (high >>> 48) & BYTE_MASK)]
+                ^ t[5 * TABLE_SIZE + ((int) (high >>> 40) & BYTE_MASK)]
+                ^ t[4 * TABLE_SIZE + ((int) (high >>> 32) & BYTE_MASK)]
+                ^ t[3 * TABLE_SIZE + ((int) (high >>> 24) & BYTE_MASK)]
+                ^ t[2 * TABLE_SIZE + ((int) (high >>> 16) & BYTE_MASK)]
+                ^ t[TABLE_SIZE + ((int) (high >>> 8) & BYTE_MASK)]
+                ^ t[(int) high & BYTE_MASK];
+        return t[(LOW_BYTES - 1) * TABLE_SIZE + (((crc >>> 16) ^ (int) (low >>> 40)) & BYTE_MASK)]
+                ^ t[(LOW_BYTES - 2) * TABLE_SIZE + (((crc >>> 8) ^ (int) (low >>> 32)) & BYTE_MASK)]
+                ^ t[(LOW_BYTES - 3) * TABLE_SIZE + ((crc ^ (int) (low >>> 24)) & BYTE_MASK)]
+                ^ t[2 * TABLE_SIZE + ((int) (low >>> 16) & BYTE_MASK)]
+                ^ t[TABLE_SIZE + ((int) (low >>> 8) & BYTE_MASK)]
+                ^ t[(int) low & BYTE_MASK];
     }
 
     /**
@@ -73,15 +139,18 @@ public final class Crc24 {
         return Bits.extractUInt(crc, 0, CRC_BITS);
     }
 
-    private static int[] buildTable(int generator) {
-        int[] table = new int[TABLE_SIZE];
+    private static int[] buildTables(int generator) {
+        int[] tables = new int[SLICES * TABLE_SIZE];
         for (int i = 0; i < TABLE_SIZE; i++) {
-            table[i] = crc_bitwise(generator, new byte[]{(byte) i});
+            tables[i] = crc_bitwise(generator, new byte[]{(byte) i});
         }
-        return table;
-    }
-
-    private static int getMostSignificantByte(int value) {
-        return ((value >> (2*Byte.SIZE)) & BYTE_MASK);
+        for (int k = 1; k < SLICES; k++) {
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                int previous = tables[(k - 1) * TABLE_SIZE + i];
+                tables[k * TABLE_SIZE + i] = ((previous << Byte.SIZE) & GENERATOR_MASK)
+                        ^ tables[previous >>> 16];
+            }
+        }
+        return tables;
     }
 }
@@ -21,6 +21,20 @@ public record AircraftIdentificationMessage(long timeStampNs, IcaoAddress icaoAd
     private static final int ASCII_NUMBER_START = 48;
     private static final int ASCII_NUMBER_END = 57;
     private static final int ASCII_SPACE_INDEX = 32;
+    private static final long CHARACTERS_MASK = (1L << 48) - 1;
+    private static final int CACHE_BITS = 12;
+    /**
+     * the canonical call signs, each one in the slot given by the hash of the characters field it was
+     * decoded from; a slot only keeps the last call sign of its hash that was decoded, but the aircraft
+     * repeating their identification every few seconds almost never share a slot
+     */
+    private static final CachedCallSign[] CACHE = new CachedCallSign[1 << CACHE_BITS];
+
+    /**
+     * A characters field and its call sign, null if the field is not valid
+     */
+    private record CachedCallSign(long characters, CallSign callSign) {}
+
     public AircraftIdentificationMessage {
         Preconditions.checkArgument(timeStampNs >= 0);
         if (icaoAdress == null || callSign == null)
@@ -35,18 +49,46 @@ public record AircraftIdentificationMessage(long timeStampNs, IcaoAddress icaoAd
      */
     public static AircraftIdentificationMessage of(RawMessage rawMessage) {
         long me = rawMessage.payload();
+        CallSign callSign = callSign(me & CHARACTERS_MASK);
+        if (callSign == null)
+            return null;
+        int category = (14 - rawMessage.typeCode() << 4) | Bits.extractUInt(me, START_POSITION, TYPE_CODE_SIZE);
+        return new AircraftIdentificationMessage(rawMessage.timeStampNs(), rawMessage.icaoAddress(),
+                category, callSign);
+    }
+
+    /**
+     * returns the canonical call sign of the given characters field, which is only decoded
+     * if it is not the last one of its slot in the cache
+     * @param characters the 48 bits of the 8 characters of the call sign
+     * @return the call sign, or null if a character is not valid
+     */
+    private static CallSign callSign(long characters) {
+        int slot = (int) ((characters * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - CACHE_BITS));
+        CachedCallSign cached = CACHE[slot];
+        if (cached == null || cached.characters() != characters) {
+            cached = new CachedCallSign(characters, decodeCallSign(characters));
+            CACHE[slot] = cached;
+        }
+        return cached.callSign();
+    }
+
+    /**
+     * decodes the given characters field
+     * @param characters the 48 bits of the 8 characters of the call sign
+     * @return the call sign, or null if a character is not valid
+     */
+    private static CallSign decodeCallSign(long characters) {
         StringBuilder callString = new StringBuilder();
         for (int i = 42; i >= 0; i -= 6) {
-            int a = Bits.extractUInt(me, i, CHARACTER_SIZE);
+            int a = Bits.extractUInt(characters, i, CHARACTER_SIZE);
             if (isLetter(a))
                 callString.append((char) (a + ASCII_LETTER_INDEX));
             else if (isNumberOrSpace(a))
                 callString.append((char) a);
             else return null;
         }
-        int category = (14 - rawMessage.typeCode() << 4) | Bits.extractUInt(me, START_POSITION, TYPE_CODE_SIZE);
-        return new AircraftIdentificationMessage(rawMessage.timeStampNs(), rawMessage.icaoAddress(),
-                category, new CallSign(callString.toString().stripTrailing()));
+        return new CallSign(callString.toString().stripTrailing());
     }
 
     /**
@@ -16,6 +16,36 @@ public class AircraftStateAccumulator<T extends AircraftStateSetter> {
     private final static long NANO_IN_NORMAL= (long) Math.pow(10, 9);
     private static final int EVEN = 0, ODD = 1;
     private AirbornePositionMessage lastEvenMessage, lastOddMessage;
+    /** the weight of the signal level of a new message in the rolling signal level */
+    private static final double SIGNAL_LEVEL_WEIGHT = 0.125;
+    /** the time constant of the rolling message rate, in nanoseconds */
+    private static final double MESSAGE_RATE_TIME_CONSTANT_NS = 10.0 * NANO_IN_NORMAL;
+    private double signalLevel = Double.NaN;
+    private double messageRate = 0;
+    private long lastMessageTimeStampNs = -1;
+    /** the position of the receiver, null if unknown */
+    private final GeoPos receiverPosition;
+    /** the last position of the aircraft obtained from its messages alone, null if none */
+    private GeoPos lastPosition;
+    private long lastPositionTimeStampNs;
+    /**
+     * the last position decoded from a pair of messages which contradicted the last position,
+     * which replaces it if the next pair confirms it, null if none
+     */
+    private GeoPos contradictingPosition;
+    private long contradictingPositionTimeStampNs;
+    /** the highest speed of an aircraft, in meters per second, above which a local fix is rejected */
+    private static final double MAX_SPEED = 1000;
+    /** the distance, in meters, which a local fix may always be from the last position */
+    private static final double POSITION_TOLERANCE = 2000;
+    /** the age, in nanoseconds, below which the last position is preferred to a pair of messages as a reference */
+    private static final long RECENT_POSITION_AGE_NS = 10 * NANO_IN_NORMAL;
+    /**
+     * the distance, in meters, within which a position decoded from a single message relatively to a
+     * reference is the right one, about half a latitude zone: 180 nautical miles
+     */
+    private static final double LOCAL_DECODING_RANGE = 180 * 1852;
+    private static final double EARTH_RADIUS = 6_371_000;
 
     /**
      * Public constructor
@@ -25,9 +55,24 @@ public class AircraftStateAccumulator<T extends AircraftStateSetter> {
      * @throws NullPointerException if it is null.
      */
     public AircraftStateAccumulator(T stateSetter) {
+        this(stateSetter, null);
+    }
+
+    /**
+     * Public constructor, for a receiver at a known position, which is then used as a reference
+     * to decode the position of the aircraft from a single message until a pair of messages gives it
+     * @param stateSetter
+     * @param receiverPosition
+     *      the position of the receiver, or null if unknown
+     *
+     * @return an aircraft state accumulator associated with the given modifiable state
+     * @throws NullPointerException if the state setter is null.
+     */
+    public AircraftStateAccumulator(T stateSetter, GeoPos receiverPosition) {
         this.stateSetter = stateSetter;
         if (stateSetter == null)
             throw new NullPointerException();
+        this.receiverPosition = receiverPosition;
     }
 
     /**
@@ -45,8 +90,21 @@ public class AircraftStateAccumulator<T extends AircraftStateSetter> {
      */
 
     public void update(Message message) {
-        GeoPos position;
+        update(message, Double.NaN);
+    }
+
+    /**
+     * updates the editable status according to the given message, received with the given
+     * signal level, which also updates the rolling signal level and message rate of the aircraft
+     * @param message
+     *      the message
+     * @param signalLevel
+     *      the signal level of the message in dBFS, or NaN if unknown
+     */
+
+    public void update(Message message, double signalLevel) {
         stateSetter.setLastMessageTimeStampNs(message.timeStampNs());
+        updateReceptionQuality(message.timeStampNs(), signalLevel);
         switch (message) {
             case AircraftIdentificationMessage aim -> {
                 stateSetter.setCategory(aim.category());
@@ -58,19 +116,123 @@ public class AircraftStateAccumulator<T extends AircraftStateSetter> {
                     lastEvenMessage = apm;
                 else
                     lastOddMessage = apm;
-                if(lastOddMessage != null && lastEvenMessage != null && isPositionValid()) {
-                    position = CprDecoder.decodePosition(lastEvenMessage.x(),
-                            lastEvenMessage.y(), lastOddMessage.x(), lastOddMessage.y(), apm.parity());
-                    if (position != null) stateSetter.setPosition(position);
-                }
+                updatePosition(apm);
             }
             case AirborneVelocityMessage avm -> {
                 stateSetter.setVelocity(avm.speed());
                 stateSetter.setTrackOrHeading(avm.trackOrHeading());
             }
-            default -> throw new Error();
+            case SurfacePositionMessage spm -> {
+                if (!Double.isNaN(spm.speed()))
+                    stateSetter.setVelocity(spm.speed());
+                if (!Double.isNaN(spm.trackOrHeading()))
+                    stateSetter.setTrackOrHeading(spm.trackOrHeading());
+            }
+            default -> {
+                // the other messages do not carry any part of the state
+            }
         }
     }
+
+    /**
+     * updates the rolling signal level, an exponentially weighted moving average of the signal levels
+     * of the messages, and the message rate, a count of the messages decaying exponentially with time
+     * which, once divided by its time constant, is an estimate of the number of messages per second
+     */
+    private void updateReceptionQuality(long timeStampNs, double level) {
+        if (lastMessageTimeStampNs >= 0) {
+            long elapsedNs = Math.max(0, timeStampNs - lastMessageTimeStampNs);
+            messageRate *= Math.exp(-elapsedNs / MESSAGE_RATE_TIME_CONSTANT_NS);
+        }
+        messageRate += NANO_IN_NORMAL / MESSAGE_RATE_TIME_CONSTANT_NS;
+        lastMessageTimeStampNs = timeStampNs;
+        stateSetter.setMessageRate(messageRate);
+        if (!Double.isNaN(level)) {
+            signalLevel = Double.isNaN(signalLevel) ? level : signalLevel + SIGNAL_LEVEL_WEIGHT * (level - signalLevel);
+            stateSetter.setSignalLevel(signalLevel);
+        }
+    }
+
+    /**
+     * updates the position of the aircraft. Once its last position is known and recent, the position is
+     * decoded from the given message alone, relatively to it, as long as the aircraft can have flown from
+     * one to the other in the meantime, so that a single corrupted frame cannot move the track; the last
+     * even and odd messages, if close enough in time, then only re-validate it: when they contradict it
+     * twice in a row, consistently, they replace it. Otherwise, the position is decoded from the last even
+     * and odd messages, which seeds the last position; failing that, relatively to the last position as long
+     * as the aircraft cannot have flown out of the range of the local decoding since, and finally relatively
+     * to the receiver position, if known, within the range of the local decoding. Only the positions
+     * obtained without the receiver position are used as references afterwards
+     */
+    private void updatePosition(AirbornePositionMessage apm) {
+        long timeStampNs = apm.timeStampNs();
+        GeoPos global = lastOddMessage != null && lastEvenMessage != null && isPositionValid()
+                ? CprDecoder.decodePosition(lastEvenMessage.x(), lastEvenMessage.y(),
+                        lastOddMessage.x(), lastOddMessage.y(), apm.parity())
+                : null;
+        GeoPos local = null;
+        if (lastPosition != null && POSITION_TOLERANCE + MAX_SPEED * elapsedSeconds(lastPositionTimeStampNs,
+                timeStampNs) <= LOCAL_DECODING_RANGE) {
+            local = CprDecoder.decodeLocalPosition(apm.x(), apm.y(), apm.parity(), lastPosition);
+            if (local != null && !isReachable(lastPosition, lastPositionTimeStampNs, local, timeStampNs))
+                local = null;
+        }
+        GeoPos position = local;
+        boolean fromAircraft = true;
+        if (global != null) {
+            boolean recent = lastPosition != null && timeStampNs - lastPositionTimeStampNs <= RECENT_POSITION_AGE_NS;
+            if (!recent || local != null && distance(local, global) <= POSITION_TOLERANCE) {
+                position = recent ? local : global;
+                contradictingPosition = null;
+            } else if (contradictingPosition != null && isReachable(contradictingPosition,
+                    contradictingPositionTimeStampNs, global, timeStampNs)) {
+                position = global;
+                contradictingPosition = null;
+            } else {
+                contradictingPosition = global;
+                contradictingPositionTimeStampNs = timeStampNs;
+            }
+        } else if (local == null && receiverPosition != null) {
+            position = CprDecoder.decodeLocalPosition(apm.x(), apm.y(), apm.parity(), receiverPosition);
+            if (position != null && distance(receiverPosition, position) > LOCAL_DECODING_RANGE)
+                position = null;
+            fromAircraft = false;
+        }
+        if (position == null)
+            return;
+        stateSetter.setPosition(position);
+        if (fromAircraft) {
+            lastPosition = position;
+            lastPositionTimeStampNs = timeStampNs;
+        }
+    }
+
+    /**
+     * @return true iff the aircraft can have flown from the first given position, at the first given time,
+     * to the second one by the second given time, at no more than MAX_SPEED
+     */
+    private static boolean isReachable(GeoPos from, long fromTimeStampNs, GeoPos to, long toTimeStampNs) {
+        return distance(from, to) <= POSITION_TOLERANCE + MAX_SPEED * elapsedSeconds(fromTimeStampNs, toTimeStampNs);
+    }
+
+    /**
+     * @return the number of seconds elapsed between the two given time stamps, 0 if the second one is earlier
+     */
+    private static double elapsedSeconds(long fromTimeStampNs, long toTimeStampNs) {
+        return (double) Math.max(0, toTimeStampNs - fromTimeStampNs) / NANO_IN_NORMAL;
+    }
+
+    /**
+     * @return the distance, in meters, between the two given positions, close enough for the Earth
+     * to be considered flat between them
+     */
+    private static double distance(GeoPos a, GeoPos b) {
+        double dLatitude = b.latitude() - a.latitude();
+        double dLongitude = Math.IEEEremainder(b.longitude() - a.longitude(), 2 * Math.PI)
+                * Math.cos((a.latitude() + b.latitude()) / 2);
+        return EARTH_RADIUS * Math.hypot(dLatitude, dLongitude);
+    }
+
     private boolean isPositionValid(){
         return Math.abs(lastOddMessage.timeStampNs() - lastEvenMessage.timeStampNs()) <= 10 * NANO_IN_NORMAL;
     }
@@ -56,4 +56,18 @@ public interface AircraftStateSetter {
      * @param trackOrHeading the track or heading value
      */
     void setTrackOrHeading(double trackOrHeading);
+
+    /**
+     * Sets the rolling signal level of the messages received from the aircraft, which is ignored by default.
+     *
+     * @param signalLevel the signal level in dBFS
+     */
+    default void setSignalLevel(double signalLevel) {}
+
+    /**
+     * Sets the rolling rate of the messages received from the aircraft, which is ignored by default.
+     *
+     * @param messageRate the number of messages per second
+     */
+    default void setMessageRate(double messageRate) {}
 }
\ No newline at end of file
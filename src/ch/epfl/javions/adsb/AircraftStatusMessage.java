@@ -0,0 +1,67 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Bits;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.Objects;
+
+/**
+ * represents an ADS-B aircraft status message, transmitting the emergency state
+ * and the Mode A code (squawk) of the aircraft
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+
+public record AircraftStatusMessage(long timeStampNs, IcaoAddress icaoAddress,
+                                    int emergencyState, int squawk) implements Message {
+
+    private static final int SUBTYPE_START = 48, SUBTYPE_LENGTH = 3;
+    private static final int EMERGENCY_STATE_START = 45, EMERGENCY_STATE_LENGTH = 3;
+    private static final int SQUAWK_START = 32, SQUAWK_LENGTH = 13;
+    private static final int EMERGENCY_SUBTYPE = 1;
+    private static final int MAX_SQUAWK = 7777;
+    /** the indexes of the bits of A4, A2, A1, B4, ..., D1 in the squawk field, in which they are interleaved */
+    private static final int[] SQUAWK_BIT_INDEXES = {7, 9, 11, 1, 3, 5, 8, 10, 12, 0, 2, 4};
+
+    /**
+     * the compact constructor of the class
+     *
+     * @throws NullPointerException     if the IcaoAdress is null
+     * @throws IllegalArgumentException if timeStamp is strictly less than 0, or the emergency state
+     *                                  is not between 0 and 7, or the squawk is not between 0 and 7777
+     */
+    public AircraftStatusMessage {
+        Objects.requireNonNull(icaoAddress);
+        Preconditions.checkArgument(timeStampNs >= 0);
+        Preconditions.checkArgument(emergencyState >= 0 && emergencyState < 1 << EMERGENCY_STATE_LENGTH);
+        Preconditions.checkArgument(squawk >= 0 && squawk <= MAX_SQUAWK);
+    }
+
+    /**
+     * method that creates an AircraftStatusMessage from a RawMessage
+     *
+     * @param rawMessage the raw message
+     * @return the aircraft status message corresponding to the given raw message, whose squawk is given
+     * by its four octal digits written in decimal (e.g. 7700), or null if its subtype is not the one
+     * of the emergency and priority status messages
+     */
+    public static AircraftStatusMessage of(RawMessage rawMessage) {
+        long payload = rawMessage.payload();
+        if (Bits.extractUInt(payload, SUBTYPE_START, SUBTYPE_LENGTH) != EMERGENCY_SUBTYPE)
+            return null;
+        int code = Bits.extractUInt(payload, SQUAWK_START, SQUAWK_LENGTH);
+        int squawk = 0;
+        for (int i = 0; i < SQUAWK_BIT_INDEXES.length; i += 3) {
+            int digit = 0;
+            for (int j = i; j < i + 3; j++)
+                digit = (digit << 1) | (Bits.testBit(code, SQUAWK_BIT_INDEXES[j]) ? 1 : 0);
+            squawk = squawk * 10 + digit;
+        }
+        return new AircraftStatusMessage(rawMessage.timeStampNs(),
+                rawMessage.icaoAddress(),
+                Bits.extractUInt(payload, EMERGENCY_STATE_START, EMERGENCY_STATE_LENGTH),
+                squawk);
+    }
+}
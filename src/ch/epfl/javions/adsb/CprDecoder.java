@@ -17,6 +17,19 @@ public final class CprDecoder {
     private static final double DELTA1 = 1d / 59;
     private static final int LATITUDE_ZONES_0 = 60;
     private static final int LATITUDE_ZONES_1 = 59;
+    /**
+     * the absolute latitudes, in turns, at which the number of longitude zones of an even message
+     * goes from LATITUDE_ZONES_1 - i to LATITUDE_ZONES_1 - i - 1, in increasing order; above the last one,
+     * there is a single longitude zone
+     */
+    private static final double[] TRANSITION_LATITUDES = transitionLatitudes();
+
+    /**
+     * the packed position returned by decodePositionPacked when the position cannot be determined,
+     * whose latitude is not valid
+     */
+    public static final long NO_POSITION = pack(0, Integer.MIN_VALUE);
+
     /**
      * Decodes the position of an aircraft from two CPR messages.
      *
@@ -28,6 +41,21 @@ public final class CprDecoder {
      * @throws IllegalArgumentException if mostRecent is not 0 or 1.
      */
     public static GeoPos decodePosition(double x0, double y0, double x1, double y1, int mostRecent) {
+        long position = decodePositionPacked(x0, y0, x1, y1, mostRecent);
+        return position == NO_POSITION ? null : new GeoPos(longitudeT32(position), latitudeT32(position));
+    }
+
+    /**
+     * Same as decodePosition, but returns the position packed in a long, without allocating any object
+     *
+     * @param x0 and y0 being the local longitude and latitude of an even message,
+     * @param x1 and y1 those of an odd message — knowing that the most recent positions are those of
+     * mostRecent index (0 or 1);
+     * @return the longitude and latitude in t32 of the position, packed in the 32 most and least
+     * significant bits respectively, or NO_POSITION if decodePosition would return null
+     * @throws IllegalArgumentException if mostRecent is not 0 or 1.
+     */
+    public static long decodePositionPacked(double x0, double y0, double x1, double y1, int mostRecent) {
         Preconditions.checkArgument(mostRecent == 0 || mostRecent == 1);
         int zLat0, zLat1, zLong0, zLong1;
         int zLat = (int) Math.rint(y0 * LATITUDE_ZONES_1 - y1 * LATITUDE_ZONES_0);
@@ -41,34 +69,97 @@ public final class CprDecoder {
         double lat0, lat1;
         lat0 = computeLatOrLong(zLat0, y0, DELTA0);
         lat1 = computeLatOrLong(zLat1, y1, DELTA1);
-        double a = computeA(lat0);
-        if (checkIfBandChanged(a, computeA(lat1)) && !Double.isNaN(a))
-            return null;
-        if (Double.isNaN(a)) {
-            zLong0 = 1;
-            zLong1 = 1;
-        } else {
-            zLong0 = (int) Math.floor(2 * Math.PI / a);
-            zLong1 = zLong0 - 1;
-        }
+        zLong0 = longitudeZones(lat0);
+        if (zLong0 != longitudeZones(lat1) && zLong0 != 1)
+            return NO_POSITION;
+        zLong1 = zLong0 == 1 ? 1 : zLong0 - 1;
         int zLong = (int) Math.rint(x0 * zLong1 - x1 * zLong0);
-        double long0 = computeLatOrLong(zLong, x0, 1d / zLong0);
-        double long1 = computeLatOrLong(zLong, x1, 1d / zLong1);
+        double long0 = computeLatOrLong(zLong < 0 ? zLong + zLong0 : zLong, x0, 1d / zLong0);
+        double long1 = computeLatOrLong(zLong < 0 ? zLong + zLong1 : zLong, x1, 1d / zLong1);
         if (mostRecent == 0) {
             if (isLatValid(lat0)) {
-                return createGeoPos(long0, lat0);
+                return packTurns(long0, lat0);
             } else {
-                return null;
+                return NO_POSITION;
             }
         } else {
             if (isLatValid(lat1)) {
-                return createGeoPos(long1, lat1);
+                return packTurns(long1, lat1);
             } else {
-                return null;
+                return NO_POSITION;
             }
         }
     }
 
+    /**
+     * Decodes the position of an aircraft from a single CPR message, knowing a reference position
+     * less than half a latitude zone, and half a longitude zone, away from it, for example
+     * the last position of the aircraft or the position of the receiver.
+     *
+     * @param x and y being the local longitude and latitude of the message,
+     * @param parity the parity of the message (0 if even, 1 if odd)
+     * @param reference the reference position
+     * @return null if the latitude of the decoded position is invalid
+     * @throws IllegalArgumentException if parity is not 0 or 1.
+     * @throws NullPointerException if the reference position is null
+     */
+    public static GeoPos decodeLocalPosition(double x, double y, int parity, GeoPos reference) {
+        long position = decodeLocalPositionPacked(x, y, parity,
+                reference.longitudeT32(), reference.latitudeT32());
+        return position == NO_POSITION ? null : new GeoPos(longitudeT32(position), latitudeT32(position));
+    }
+
+    /**
+     * Same as decodeLocalPosition, but returns the position packed in a long, without allocating any object
+     *
+     * @param x and y being the local longitude and latitude of the message,
+     * @param parity the parity of the message (0 if even, 1 if odd)
+     * @param referenceLongitudeT32 and referenceLatitudeT32 the coordinates in t32 of the reference position
+     * @return the packed position, or NO_POSITION if decodeLocalPosition would return null
+     * @throws IllegalArgumentException if parity is not 0 or 1.
+     */
+    public static long decodeLocalPositionPacked(double x, double y, int parity,
+                                                 int referenceLongitudeT32, int referenceLatitudeT32) {
+        Preconditions.checkArgument(parity == 0 || parity == 1);
+        double delta = parity == 0 ? DELTA0 : DELTA1;
+        double lat = computeLocalLatOrLong(y, delta, Units.convert(referenceLatitudeT32,
+                Units.Angle.T32, Units.Angle.TURN));
+        int zLong = Math.max(longitudeZones(lat) - parity, 1);
+        double lon = computeLocalLatOrLong(x, 1d / zLong, Units.convert(referenceLongitudeT32,
+                Units.Angle.T32, Units.Angle.TURN));
+        lon -= Math.floor(lon + 0.5);
+        return isLatValid(lat) ? packTurns(lon, lat) : NO_POSITION;
+    }
+
+    /**
+     * Computes the latitude or longitude of the zone closest to the reference one
+     * @param y local latitude or longitude
+     * @param delta the size of a zone, in turns
+     * @param reference the reference latitude or longitude, in turns
+     * @return the latitude or longitude, in turns
+     */
+    private static double computeLocalLatOrLong(double y, double delta, double reference) {
+        double zone = Math.floor(reference / delta);
+        zone += Math.floor(0.5 + (reference - zone * delta) / delta - y);
+        return delta * (zone + y);
+    }
+
+    /**
+     * @param position a packed position, other than NO_POSITION
+     * @return the longitude in t32 of the given packed position
+     */
+    public static int longitudeT32(long position) {
+        return (int) (position >> Integer.SIZE);
+    }
+
+    /**
+     * @param position a packed position, other than NO_POSITION
+     * @return the latitude in t32 of the given packed position
+     */
+    public static int latitudeT32(long position) {
+        return (int) position;
+    }
+
     /**
      * Computes the latitude or longitude
      * @param zLat latitude zone
@@ -103,34 +194,53 @@ public final class CprDecoder {
     }
 
     /**
-     * Creates a GeoPos
-     * @param a x coordinate
-     * @param b y coordinate
-     * @return the GeoPos
+     * Packs a position
+     * @param a x coordinate, in turns
+     * @param b y coordinate, in turns
+     * @return the packed position
      */
-    private static GeoPos createGeoPos(double a, double b) {
-        return new GeoPos((int) Math.rint(Units.convert(a, Units.Angle.TURN, Units.Angle.T32)),
+    private static long packTurns(double a, double b) {
+        return pack((int) Math.rint(Units.convert(a, Units.Angle.TURN, Units.Angle.T32)),
                 (int) Math.rint(Units.convert(b, Units.Angle.TURN, Units.Angle.T32)));
     }
 
+    private static long pack(int longitudeT32, int latitudeT32) {
+        return ((long) longitudeT32 << Integer.SIZE) | Integer.toUnsignedLong(latitudeT32);
+    }
+
     /**
-     * Computes the value of a
-     * @param lat0 latitude
-     * @return the value of a
+     * Computes the number of longitude zones of an even message, by binary search
+     * in the table of transition latitudes
+     * @param lat latitude, in turns
+     * @return the number of longitude zones, between 1 and LATITUDE_ZONES_1
      */
-    private static double computeA(double lat0) {
-        return Math.acos(1 - ((1 - Math.cos(2 * Math.PI * DELTA0)) /
-                (Math.cos(Units.convertFrom(lat0, Units.Angle.TURN)) *
-                        Math.cos(Units.convertFrom(lat0, Units.Angle.TURN)))));
+    private static int longitudeZones(double lat) {
+        double absLat = Math.abs(lat);
+        int low = 0, high = TRANSITION_LATITUDES.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (TRANSITION_LATITUDES[middle] <= absLat)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return LATITUDE_ZONES_1 - low;
     }
 
     /**
-     * Checks if the band changed
-     * @param a1 value of a computed for first coordinate
-     * @param a2 value of a computed for second coordinate
-     * @return true if the band changed
+     * Computes the transition latitudes, the one at which there are only nl - 1 longitude zones left
+     * being the one at which the width of nl zones, 2π / nl, equals the one given by
+     * acos(1 - (1 - cos(2π * DELTA0)) / cos²(lat))
+     * @return the transition latitudes, in turns
      */
-    private static boolean checkIfBandChanged(double a1, double a2) {
-        return Math.floor((2 * Math.PI) / a1) != Math.floor((2 * Math.PI) / a2);
+    private static double[] transitionLatitudes() {
+        double[] latitudes = new double[LATITUDE_ZONES_1 - 1];
+        for (int i = 0; i < latitudes.length; i++) {
+            int nl = LATITUDE_ZONES_1 - i;
+            double lat = Math.acos(Math.sqrt((1 - Math.cos(2 * Math.PI * DELTA0))
+                    / (1 - Math.cos(2 * Math.PI / nl))));
+            latitudes[i] = Units.convertTo(lat, Units.Angle.TURN);
+        }
+        return latitudes;
     }
 }
@@ -0,0 +1,106 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Represents a filter of the frames already received within a time window, for example from another
+ * receiver covering the same area. The times compared must then be in the same time base, which the time
+ * stamps of messages counted in samples by receivers of their own are not, as they start at different
+ * instants and drift with their clocks: such frames are rather compared at the time they are received,
+ * measured by a clock shared by all the feeds. The recent
+ * frames are kept in a bounded open-addressing hash table, in which a frame is only looked for among
+ * PROBES consecutive slots; once they are all taken by recent frames, the oldest one is replaced,
+ * so that a duplicate may exceptionally go through, but no memory is allocated after construction.
+ * A filter is not thread-safe: when the merged feeds are read on several threads, they must synchronize on it.
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class DuplicateFilter {
+    /** the number of slots in which a frame is looked for */
+    private static final int PROBES = 8;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long windowNs;
+    private final int mask;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] timeStamps;
+    private long suppressedCount = 0;
+
+    /**
+     * the constructor of the class
+     *
+     * @param windowNs the duration, in nanoseconds, during which the copies of a frame are suppressed
+     * @param capacity the number of slots of the table, which must be a power of two
+     *                 of at least PROBES, and should be well above the number of frames of a window
+     * @throws IllegalArgumentException if the window is not strictly positive, or the capacity is not valid
+     */
+    public DuplicateFilter(long windowNs, int capacity) {
+        Preconditions.checkArgument(windowNs > 0);
+        Preconditions.checkArgument(capacity >= PROBES && Integer.bitCount(capacity) == 1);
+        this.windowNs = windowNs;
+        mask = capacity - 1;
+        highs = new long[capacity];
+        lows = new long[capacity];
+        timeStamps = new long[capacity];
+        Arrays.fill(timeStamps, EMPTY);
+    }
+
+    /**
+     * Determines whether the given message is a copy of a frame received less than the duration
+     * of the window before or after it, and remembers its frame otherwise, comparing their time stamps
+     *
+     * @param message the message
+     * @return true iff the message is a duplicate, which must then be dropped
+     */
+    public boolean isDuplicate(RawMessage message) {
+        return isDuplicate(message, message.timeStampNs());
+    }
+
+    /**
+     * Determines whether the given message is a copy of a frame received less than the duration
+     * of the window before or after the given time, and remembers its frame at that time otherwise
+     *
+     * @param message     the message
+     * @param timeStampNs the time at which the message has been received, in nanoseconds,
+     *                    in the time base shared by all the messages given to the filter
+     * @return true iff the message is a duplicate, which must then be dropped
+     */
+    public boolean isDuplicate(RawMessage message, long timeStampNs) {
+        long high = message.high(), low = message.low();
+        int first = slot(high, low);
+        int free = -1, oldest = first;
+        for (int p = 0; p < PROBES; p++) {
+            int i = (first + p) & mask;
+            boolean recent = timeStamps[i] != EMPTY && Math.abs(timeStampNs - timeStamps[i]) < windowNs;
+            if (recent && highs[i] == high && lows[i] == low) {
+                suppressedCount++;
+                return true;
+            }
+            if (!recent && free < 0)
+                free = i;
+            if (timeStamps[i] < timeStamps[oldest])
+                oldest = i;
+        }
+        int i = free >= 0 ? free : oldest;
+        highs[i] = high;
+        lows[i] = low;
+        timeStamps[i] = timeStampNs;
+        return false;
+    }
+
+    /**
+     * @return the number of messages that have been found to be duplicates
+     */
+    public long suppressedCount() {
+        return suppressedCount;
+    }
+
+    private int slot(long high, long low) {
+        long hash = high * 0x9E3779B97F4A7C15L ^ low * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
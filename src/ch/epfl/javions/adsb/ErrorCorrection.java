@@ -0,0 +1,129 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Crc24;
+
+import java.util.Arrays;
+
+/**
+ * Represents the correction applied to the ADS-B frames whose CRC is not valid: the syndrome of
+ * such a frame, i.e. the CRC computed over it, identifies the bits to flip when at most two of them
+ * are wrong, which is found with a single lookup in a precomputed table.
+ * <p>
+ * About one random 24-bit syndrome in 3000 is the one of a two-bit error, so that on noise alone,
+ * the frames passing the preamble and downlink format tests give about 2.3 false DF17 frames per second
+ * once two bits are corrected, each one with a random ICAO address, whereas none were seen correcting
+ * a single bit. The correction is thus never enabled by default, and a demodulator only accepts a two-bit
+ * correction for an aircraft already received without error, see AdsbDemodulator.setErrorCorrection.
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public enum ErrorCorrection {
+    /** frames with an invalid CRC are discarded */
+    NONE(0),
+    /** frames with a single wrong bit are corrected */
+    SINGLE_BIT(1),
+    /**
+     * frames with one or two wrong bits are corrected; when not filtered further,
+     * this gives about 2.3 false frames per second on noise
+     */
+    DOUBLE_BIT(2);
+
+    private final int maxFlippedBits;
+
+    ErrorCorrection(int maxFlippedBits) {
+        this.maxFlippedBits = maxFlippedBits;
+    }
+
+    /**
+     * Corrects the given frame, if its syndrome corresponds to at most as many wrong bits
+     * as allowed by this correction; the downlink format bits are never corrected
+     *
+     * @param frame    the bytes of the frame, of length RawMessage.LENGTH
+     * @param syndrome the CRC computed over the whole frame, which is not 0
+     * @return the number of bits that have been flipped to correct the frame, 1 or 2,
+     * or 0 if the frame has not been corrected
+     */
+    public int correct(byte[] frame, int syndrome) {
+        if (maxFlippedBits == 0)
+            return 0;
+        int bits = SyndromeTable.BITS_BY_SYNDROME.lookup(syndrome);
+        if (bits == SyndromeTable.NOT_FOUND)
+            return 0;
+        int flippedBits = SyndromeTable.flippedBitCount(bits);
+        if (flippedBits > maxFlippedBits)
+            return 0;
+        SyndromeTable.flip(frame, bits);
+        return flippedBits;
+    }
+
+    /**
+     * Represents the table associating the syndromes of the errors of one or two bits
+     * of a frame to their positions
+     */
+    private static final class SyndromeTable {
+        private static final int NOT_FOUND = 0;
+        private static final int AMBIGUOUS = -1;
+        private static final int FRAME_BITS = RawMessage.LENGTH * Byte.SIZE;
+        /** the first bit following the downlink format, which is never corrected */
+        private static final int FIRST_CORRECTED_BIT = 5;
+        private static final int CAPACITY = 1 << 14;
+        private static final int MASK = CAPACITY - 1;
+        private static final int EMPTY = -1;
+        private static final SyndromeTable BITS_BY_SYNDROME = new SyndromeTable();
+
+        private final int[] syndromes = new int[CAPACITY];
+        /** the positions of the wrong bits, each one plus 1, in the two least significant bytes */
+        private final int[] bits = new int[CAPACITY];
+
+        private SyndromeTable() {
+            Arrays.fill(syndromes, EMPTY);
+            Crc24 crc24 = new Crc24(Crc24.GENERATOR);
+            int[] singleBitSyndromes = new int[FRAME_BITS];
+            byte[] frame = new byte[RawMessage.LENGTH];
+            for (int i = FIRST_CORRECTED_BIT; i < FRAME_BITS; i++) {
+                flip(frame, i + 1);
+                singleBitSyndromes[i] = crc24.crc(frame);
+                flip(frame, i + 1);
+                insert(singleBitSyndromes[i], i + 1);
+            }
+            for (int i = FIRST_CORRECTED_BIT; i < FRAME_BITS; i++) {
+                for (int j = i + 1; j < FRAME_BITS; j++)
+                    insert(singleBitSyndromes[i] ^ singleBitSyndromes[j], (i + 1) | (j + 1) << Byte.SIZE);
+            }
+        }
+
+        private void insert(int syndrome, int positions) {
+            int i = slot(syndrome);
+            if (syndromes[i] == syndrome) {
+                bits[i] = AMBIGUOUS;
+            } else {
+                syndromes[i] = syndrome;
+                bits[i] = positions;
+            }
+        }
+
+        private int lookup(int syndrome) {
+            int i = slot(syndrome);
+            return syndromes[i] == syndrome && bits[i] != AMBIGUOUS ? bits[i] : NOT_FOUND;
+        }
+
+        private int slot(int syndrome) {
+            int i = (syndrome * 0x9E3779B1) >>> 18 & MASK;
+            while (syndromes[i] != EMPTY && syndromes[i] != syndrome)
+                i = (i + 1) & MASK;
+            return i;
+        }
+
+        private static int flippedBitCount(int positions) {
+            return (positions >>> Byte.SIZE) == 0 ? 1 : 2;
+        }
+
+        private static void flip(byte[] frame, int positions) {
+            for (; positions != 0; positions >>>= Byte.SIZE) {
+                int bit = (positions & 0xFF) - 1;
+                frame[bit / Byte.SIZE] ^= (byte) (1 << (Byte.SIZE - 1 - bit % Byte.SIZE));
+            }
+        }
+    }
+}
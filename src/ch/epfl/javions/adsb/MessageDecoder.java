@@ -0,0 +1,20 @@
+package ch.epfl.javions.adsb;
+
+/**
+ * Represents a decoder of the raw messages of a given type code into messages,
+ * which can be registered in MessageParser
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+@FunctionalInterface
+public interface MessageDecoder {
+
+    /**
+     * Decodes the given raw message
+     *
+     * @param rawMessage the raw message
+     * @return the corresponding message, or null if it is invalid
+     */
+    Message decode(RawMessage rawMessage);
+}
@@ -1,8 +1,11 @@
 package ch.epfl.javions.adsb;
 
+import java.util.Objects;
+
 /**
- * Transforms the raw ADS-B messages into messages of one of the three types described below:
- * — AircraftIdentificationMessage, AirbornePositionMessage or AirborneVelocityMessage
+ * Transforms the raw ADS-B messages into messages, using the decoder registered for their type code:
+ * — AircraftIdentificationMessage, SurfacePositionMessage, AirbornePositionMessage, AirborneVelocityMessage,
+ * AircraftStatusMessage, TargetStateMessage or OperationalStatusMessage by default
  *
  * @author Andrei Pana 361249
  * @author David Fota 355816
@@ -11,9 +14,20 @@ package ch.epfl.javions.adsb;
 public class MessageParser {
 
     private final static int AIRCRAFT_IDENTIFICATION_TYPECODE_START = 1, AIRCRAFT_IDENTIFICATION_TYPECODE_END = 4;
+    private final static int SURFACE_POSITION_TYPECODE_START = 5, SURFACE_POSITION_TYPECODE_END = 8;
     private final static int FIRST_AIRBORNE_POSITION_TYPECODE_START = 9, FIRST_AIRBORNE_POSITION_TYPECODE_END = 18;
     private final static int SECOND_AIRBORNE_POSITION_TYPECODE_START = 20, SECOND_AIRBORNE_POSITION_TYPECODE_END = 22;
     private final static int AIRBORNE_VELOCITY_TYPECODE = 19;
+    private final static int AIRCRAFT_STATUS_TYPECODE = 28;
+    private final static int TARGET_STATE_TYPECODE = 29;
+    private final static int OPERATIONAL_STATUS_TYPECODE = 31;
+    private final static int TYPECODE_COUNT = 32;
+
+    /**
+     * the decoder of each type code, null if its messages are discarded; the array is never modified
+     * once published, a registration replacing it by a modified copy
+     */
+    private static volatile MessageDecoder[] decoders = defaultDecoders();
 
     private MessageParser(){}
 
@@ -21,27 +35,47 @@ public class MessageParser {
      * Transforms a raw message into the corresponding message
      *
      * @param rawMessage the raw message
-     * @return the instance of AircraftIdentificationMessage, AirbornePositionMessage or AirborneVelocityMessage
-     * corresponding to the given raw message, or null if the type code of the latter does not correspond to
-     * any of these three types of messages, or if it is invalid
+     * @return the message returned by the decoder registered for the type code of the given raw message,
+     * or null if there is none, or if the message is invalid
      */
     public static Message parse(RawMessage rawMessage) {
-        int typecode = rawMessage.typeCode();
-
-        if (typecode >= AIRCRAFT_IDENTIFICATION_TYPECODE_START
-                && typecode <= AIRCRAFT_IDENTIFICATION_TYPECODE_END) {
-            return AircraftIdentificationMessage.of(rawMessage);
+        MessageDecoder decoder = decoders[rawMessage.typeCode()];
+        return decoder == null ? null : decoder.decode(rawMessage);
+    }
 
-        } else if ((typecode >= FIRST_AIRBORNE_POSITION_TYPECODE_START
-                && typecode <= FIRST_AIRBORNE_POSITION_TYPECODE_END)
-                || (typecode >= SECOND_AIRBORNE_POSITION_TYPECODE_START
-                && typecode <= SECOND_AIRBORNE_POSITION_TYPECODE_END)) {
-            return AirbornePositionMessage.of(rawMessage);
+    /**
+     * Registers the given decoder for the given type code, replacing the previous one, if any;
+     * this method can be called concurrently with parse and itself
+     *
+     * @param typeCode the type code
+     * @param decoder  the decoder, or null if the messages of the type code must be discarded
+     * @throws IndexOutOfBoundsException if the type code is not between 0 (included) and 32 (excluded)
+     */
+    public static synchronized void register(int typeCode, MessageDecoder decoder) {
+        Objects.checkIndex(typeCode, TYPECODE_COUNT);
+        MessageDecoder[] newDecoders = decoders.clone();
+        newDecoders[typeCode] = decoder;
+        decoders = newDecoders;
+    }
 
-        } else if (typecode == AIRBORNE_VELOCITY_TYPECODE) {
-            return AirborneVelocityMessage.of(rawMessage);
-        }
+    private static MessageDecoder[] defaultDecoders() {
+        MessageDecoder[] table = new MessageDecoder[TYPECODE_COUNT];
+        fill(table, AIRCRAFT_IDENTIFICATION_TYPECODE_START, AIRCRAFT_IDENTIFICATION_TYPECODE_END,
+                AircraftIdentificationMessage::of);
+        fill(table, SURFACE_POSITION_TYPECODE_START, SURFACE_POSITION_TYPECODE_END, SurfacePositionMessage::of);
+        fill(table, FIRST_AIRBORNE_POSITION_TYPECODE_START, FIRST_AIRBORNE_POSITION_TYPECODE_END,
+                AirbornePositionMessage::of);
+        fill(table, SECOND_AIRBORNE_POSITION_TYPECODE_START, SECOND_AIRBORNE_POSITION_TYPECODE_END,
+                AirbornePositionMessage::of);
+        table[AIRBORNE_VELOCITY_TYPECODE] = AirborneVelocityMessage::of;
+        table[AIRCRAFT_STATUS_TYPECODE] = AircraftStatusMessage::of;
+        table[TARGET_STATE_TYPECODE] = TargetStateMessage::of;
+        table[OPERATIONAL_STATUS_TYPECODE] = OperationalStatusMessage::of;
+        return table;
+    }
 
-        return null;
+    private static void fill(MessageDecoder[] table, int start, int end, MessageDecoder decoder) {
+        for (int typeCode = start; typeCode <= end; typeCode++)
+            table[typeCode] = decoder;
     }
 }
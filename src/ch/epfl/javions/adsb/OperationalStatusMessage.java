@@ -0,0 +1,63 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Bits;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.Objects;
+
+/**
+ * represents an ADS-B operational status message, transmitting the version of ADS-B
+ * implemented by the aircraft and the quality of the positions it transmits
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+
+public record OperationalStatusMessage(long timeStampNs, IcaoAddress icaoAddress, boolean onGround,
+                                       int version, int positionAccuracy, int integrityLevel)
+        implements Message {
+
+    private static final int SUBTYPE_START = 48, SUBTYPE_LENGTH = 3;
+    private static final int VERSION_START = 13, VERSION_LENGTH = 3;
+    private static final int NAC_P_START = 8, NAC_P_LENGTH = 4;
+    private static final int SIL_START = 4, SIL_LENGTH = 2;
+    private static final int AIRBORNE_SUBTYPE = 0, SURFACE_SUBTYPE = 1;
+
+    /**
+     * the compact constructor of the class
+     *
+     * @throws NullPointerException     if the IcaoAdress is null
+     * @throws IllegalArgumentException if timeStamp is strictly less than 0, or the version,
+     *                                  the navigation accuracy category or the integrity level
+     *                                  do not fit in their field
+     */
+    public OperationalStatusMessage {
+        Objects.requireNonNull(icaoAddress);
+        Preconditions.checkArgument(timeStampNs >= 0);
+        Preconditions.checkArgument(version >= 0 && version < 1 << VERSION_LENGTH);
+        Preconditions.checkArgument(positionAccuracy >= 0 && positionAccuracy < 1 << NAC_P_LENGTH);
+        Preconditions.checkArgument(integrityLevel >= 0 && integrityLevel < 1 << SIL_LENGTH);
+    }
+
+    /**
+     * method that creates an OperationalStatusMessage from a RawMessage
+     *
+     * @param rawMessage the raw message
+     * @return the operational status message corresponding to the given raw message, whose position
+     * accuracy is its navigation accuracy category (NACp) and integrity level its source integrity level (SIL),
+     * or null if its subtype is neither the airborne nor the surface one
+     */
+    public static OperationalStatusMessage of(RawMessage rawMessage) {
+        long payload = rawMessage.payload();
+        int subtype = Bits.extractUInt(payload, SUBTYPE_START, SUBTYPE_LENGTH);
+        if (subtype != AIRBORNE_SUBTYPE && subtype != SURFACE_SUBTYPE)
+            return null;
+        return new OperationalStatusMessage(rawMessage.timeStampNs(),
+                rawMessage.icaoAddress(),
+                subtype == SURFACE_SUBTYPE,
+                Bits.extractUInt(payload, VERSION_START, VERSION_LENGTH),
+                Bits.extractUInt(payload, NAC_P_START, NAC_P_LENGTH),
+                Bits.extractUInt(payload, SIL_START, SIL_LENGTH));
+    }
+}
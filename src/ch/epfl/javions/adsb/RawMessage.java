@@ -6,35 +6,78 @@ import ch.epfl.javions.Crc24;
 import ch.epfl.javions.Preconditions;
 import ch.epfl.javions.aircraft.IcaoAddress;
 
-import java.util.HexFormat;
+import java.util.Objects;
 
 /**
- * Represents a Raw Message
+ * Represents a Raw Message, whose 14 bytes are packed into two longs, along with the mean power of the peaks
+ * and of the valleys of its preamble, in the units of the power computer, which are 0 if unknown.
+ * Two messages are equal if they have the same time stamp and the same bytes, whatever their powers,
+ * which only describe how the message was received.
  *
+ * @param timeStampNs the timestamp, in nanoseconds
+ * @param high        the bytes 0 to 7 of the message, in big-endian order
+ * @param low         the bytes 8 to 13 of the message, in big-endian order in its 48 least significant bits
+ * @param signalPower the mean power of the peaks of the preamble
+ * @param noisePower  the mean power of the valleys of the preamble
  * @author Andrei Pana 361249
  * @author David Fota 355816
  */
-public record RawMessage(long timeStampNs, ByteString bytes) {
+public record RawMessage(long timeStampNs, long high, long low, int signalPower, int noisePower) {
 
     public static final int LENGTH = 14;
-    private static final int ICAO_START = 1, ICAO_END = 4;
-    private static final int ME_START = 4, ME_END = 11;
+    private static final int HIGH_LENGTH = Long.BYTES;
+    private static final int LOW_BITS = (LENGTH - HIGH_LENGTH) * Byte.SIZE;
+    private static final int ICAO_START = 32, ICAO_LENGTH = 24;
+    private static final int ME_HIGH_LENGTH = 32, ME_LOW_START = 24;
     private static final int TYPECODE_START = 51, TYPECODE_LENGTH = 5;
     private static final int DOWNLINK_FORMAT_START = 3, DOWNLINK_FORMAT_LENGTH = 5;
     private static final int VALID_DOWNLINK_FORMAT = 17;
-    private static final int DF_BYTE_INDEX = 0;
     private static final Crc24 CRC24 = new Crc24(Crc24.GENERATOR);
-    private static final HexFormat HF = HexFormat.of().withUpperCase();
+    /**
+     * the power of a full-scale sinusoid, computed from 4 pairs of 12-bit samples: each of its two
+     * components sums 4 samples of amplitude 2048, whose squares add up to (4 * 2048)² whatever its phase;
+     * the highest possible power, twice as large, is reached by a full-scale square wave, at +3 dBFS
+     */
+    private static final double FULL_SCALE_POWER = (4 * 2048) * (4 * 2048);
 
     /**
      * the compact constructor of the class
      *
      * @throws IllegalArgumentException if the time stamp is negative
-     * @throws IllegalArgumentException if the size of the message is not valid
+     * @throws IllegalArgumentException if the low long has bits set outside of its 48 least significant ones
+     * @throws IllegalArgumentException if one of the powers is negative
      */
     public RawMessage {
         Preconditions.checkArgument(timeStampNs >= 0);
-        Preconditions.checkArgument(bytes.size() == LENGTH);
+        Preconditions.checkArgument(low >>> LOW_BITS == 0);
+        Preconditions.checkArgument(signalPower >= 0 && noisePower >= 0);
+    }
+
+    /**
+     * Builds a raw message with the given bytes and signal and noise powers
+     *
+     * @param timeStampNs the timestamp
+     * @param bytes       the bytes of the message
+     * @param signalPower the mean power of the peaks of the preamble
+     * @param noisePower  the mean power of the valleys of the preamble
+     * @throws IllegalArgumentException if the time stamp is negative
+     * @throws IllegalArgumentException if the size of the message is not valid
+     * @throws IllegalArgumentException if one of the powers is negative
+     */
+    public RawMessage(long timeStampNs, ByteString bytes, int signalPower, int noisePower) {
+        this(timeStampNs, checkedHigh(bytes), bytes.bytesInRange(HIGH_LENGTH, LENGTH), signalPower, noisePower);
+    }
+
+    /**
+     * Builds a raw message whose signal and noise powers are unknown
+     *
+     * @param timeStampNs the timestamp
+     * @param bytes       the bytes of the message
+     * @throws IllegalArgumentException if the time stamp is negative
+     * @throws IllegalArgumentException if the size of the message is not valid
+     */
+    public RawMessage(long timeStampNs, ByteString bytes) {
+        this(timeStampNs, bytes, 0, 0);
     }
 
     /**
@@ -45,7 +88,33 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return the generated Raw Message
      */
     public static RawMessage of(long timeStampNs, byte[] bytes) {
-        return (CRC24.crc(bytes) != 0) ? null : new RawMessage(timeStampNs, new ByteString(bytes));
+        if (CRC24.crc(bytes) != 0)
+            return null;
+        Preconditions.checkArgument(bytes.length == LENGTH);
+        return new RawMessage(timeStampNs, high(bytes), low(bytes), 0, 0);
+    }
+
+    /**
+     * @param bytes the LENGTH bytes of a message
+     * @return the bytes 0 to 7 of the message packed in a long, in big-endian order
+     */
+    public static long high(byte[] bytes) {
+        long high = 0;
+        for (int i = 0; i < HIGH_LENGTH; i++)
+            high = (high << Byte.SIZE) | Byte.toUnsignedLong(bytes[i]);
+        return high;
+    }
+
+    /**
+     * @param bytes the LENGTH bytes of a message
+     * @return the bytes 8 to 13 of the message packed in the 48 least significant bits of a long,
+     * in big-endian order
+     */
+    public static long low(byte[] bytes) {
+        long low = 0;
+        for (int i = HIGH_LENGTH; i < LENGTH; i++)
+            low = (low << Byte.SIZE) | Byte.toUnsignedLong(bytes[i]);
+        return low;
     }
 
     /**
@@ -69,10 +138,15 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
         return Bits.extractUInt(payload, TYPECODE_START, TYPECODE_LENGTH);
     }
 
+    /**
+     * @return the bytes of the message, which are unpacked at each call into a single array
+     */
+    public ByteString bytes() {
+        return ByteString.ofPackedBytes(LENGTH, high, low);
+    }
+
     public int downLinkFormat() {
-        int df = bytes.byteAt(DF_BYTE_INDEX);
-        df = Bits.extractUInt(df, DOWNLINK_FORMAT_START, DOWNLINK_FORMAT_LENGTH);
-        return df;
+        return (int) (high >>> (Long.SIZE - DOWNLINK_FORMAT_LENGTH));
     }
 
     /**
@@ -81,8 +155,7 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return Icao Adress
      */
     public IcaoAddress icaoAddress() {
-        long icao = bytes.bytesInRange(ICAO_START, ICAO_END);
-        return new IcaoAddress(HF.toHexDigits(icao, 6));
+        return IcaoAddress.of((int) (high >>> ICAO_START) & ((1 << ICAO_LENGTH) - 1));
     }
 
     /**
@@ -91,7 +164,7 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
      * @return payload
      */
     public long payload() {
-        return bytes.bytesInRange(ME_START, ME_END);
+        return ((high & ((1L << ME_HIGH_LENGTH) - 1)) << ME_LOW_START) | (low >>> ME_LOW_START);
     }
 
     /**
@@ -102,4 +175,52 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
     public int typeCode() {
         return typeCode(payload());
     }
+
+    /**
+     * @return the signal level of the message in dBFS, relative to a full-scale sinusoid,
+     * or NaN if its signal power is unknown
+     */
+    public double signalLevel() {
+        return signalPower == 0 ? Double.NaN : 10 * Math.log10(signalPower / FULL_SCALE_POWER);
+    }
+
+    /**
+     * @return the signal-to-noise ratio of the message in dB, or NaN if one of its powers is unknown
+     */
+    public double snr() {
+        return signalPower == 0 || noisePower == 0
+                ? Double.NaN
+                : 10 * Math.log10((double) signalPower / noisePower);
+    }
+
+    /**
+     * @return the string representation of the message, showing its bytes in hexadecimal
+     */
+    @Override
+    public String toString() {
+        return "RawMessage[timeStampNs=" + timeStampNs + ", bytes=" + bytes()
+                + ", signalPower=" + signalPower + ", noisePower=" + noisePower + "]";
+    }
+
+    /**
+     * @param that the object to be compared with
+     * @return true iff the object is a raw message with the same time stamp and bytes, whatever its powers
+     */
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof RawMessage m && timeStampNs == m.timeStampNs && high == m.high && low == m.low;
+    }
+
+    /**
+     * @return the hash code of the message, which does not depend on its powers
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(timeStampNs, high, low);
+    }
+
+    private static long checkedHigh(ByteString bytes) {
+        Preconditions.checkArgument(bytes.size() == LENGTH);
+        return bytes.bytesInRange(0, HIGH_LENGTH);
+    }
 }
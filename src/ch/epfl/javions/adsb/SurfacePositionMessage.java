@@ -0,0 +1,89 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Bits;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.Units;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.Objects;
+
+/**
+ * represents an ADS-B surface positioning message, whose local longitude and latitude
+ * are expressed in the surface CPR zones, four times smaller than the airborne ones
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+
+public record SurfacePositionMessage(long timeStampNs, IcaoAddress icaoAddress, double speed,
+                                     double trackOrHeading, int parity, double x, double y) implements Message {
+
+    private static final int MOVEMENT_START = 44, MOVEMENT_LENGTH = 7;
+    private static final int HEADING_STATUS_INDEX = 43;
+    private static final int HEADING_START = 36, HEADING_LENGTH = 7;
+    private static final int FORMAT_START = 34, FORMAT_LENGTH = 1;
+    private static final int LAT_CPR_START = 17, LAT_CPR_LENGTH = 17;
+    private static final int LONG_CPR_START = 0, LONG_CPR_LENGTH = 17;
+    private static final int EVEN = 0;
+    private static final int ODD = 1;
+
+    /**
+     * the compact constructor of the class
+     *
+     * @throws NullPointerException     if the IcaoAdress is null
+     * @throws IllegalArgumentException if timeStamp is strictly less than 0, or speed or trackOrHeading
+     *                                  are strictly negative, or parity is different from 0 or 1,
+     *                                  or x or y are not between 0 (included) and 1 (excluded)
+     */
+    public SurfacePositionMessage {
+        Objects.requireNonNull(icaoAddress);
+        Preconditions.checkArgument(timeStampNs >= 0);
+        Preconditions.checkArgument(Double.isNaN(speed) || speed >= 0);
+        Preconditions.checkArgument(Double.isNaN(trackOrHeading) || trackOrHeading >= 0);
+        Preconditions.checkArgument(parity == EVEN || parity == ODD);
+        Preconditions.checkArgument(x >= 0 && x < 1);
+        Preconditions.checkArgument(y >= 0 && y < 1);
+    }
+
+    /**
+     * method that creates a SurfacePositionMessage from a RawMessage
+     *
+     * @param rawMessage the raw message
+     * @return the surface positioning message corresponding to the given raw message, whose speed,
+     * in meters per second, is NaN if not available, and whose track, in radians, is NaN if not valid
+     */
+    public static SurfacePositionMessage of(RawMessage rawMessage) {
+        long payload = rawMessage.payload();
+        int movement = Bits.extractUInt(payload, MOVEMENT_START, MOVEMENT_LENGTH);
+        double track = Bits.testBit(payload, HEADING_STATUS_INDEX)
+                ? Units.convertFrom(Math.scalb(Bits.extractUInt(payload, HEADING_START, HEADING_LENGTH),
+                -HEADING_LENGTH), Units.Angle.TURN)
+                : Double.NaN;
+        return new SurfacePositionMessage(rawMessage.timeStampNs(),
+                rawMessage.icaoAddress(),
+                movementToSpeed(movement),
+                track,
+                Bits.extractUInt(payload, FORMAT_START, FORMAT_LENGTH),
+                Math.scalb(Bits.extractUInt(payload, LONG_CPR_START, LONG_CPR_LENGTH), -17),
+                Math.scalb(Bits.extractUInt(payload, LAT_CPR_START, LAT_CPR_LENGTH), -17));
+    }
+
+    /**
+     * Decodes the movement field, whose quantization step grows with the ground speed
+     * @param movement the movement field
+     * @return the ground speed in meters per second, or NaN if not available
+     */
+    private static double movementToSpeed(int movement) {
+        double knots;
+        if (movement == 0 || movement > 124) return Double.NaN;
+        else if (movement == 1) knots = 0;
+        else if (movement <= 8) knots = 0.125 * (movement - 1);
+        else if (movement <= 12) knots = 1 + 0.25 * (movement - 9);
+        else if (movement <= 38) knots = 2 + 0.5 * (movement - 13);
+        else if (movement <= 93) knots = 15 + (movement - 39);
+        else if (movement <= 108) knots = 70 + 2 * (movement - 94);
+        else if (movement <= 123) knots = 100 + 5 * (movement - 109);
+        else knots = 175;
+        return Units.convertFrom(knots, Units.Speed.KNOT);
+    }
+}
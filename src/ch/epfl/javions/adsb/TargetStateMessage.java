@@ -0,0 +1,73 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Bits;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.Units;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.Objects;
+
+/**
+ * represents an ADS-B target state and status message, transmitting the altitude, pressure setting
+ * and heading selected on the autopilot of the aircraft
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+
+public record TargetStateMessage(long timeStampNs, IcaoAddress icaoAddress, double selectedAltitude,
+                                 double pressureSetting, double selectedHeading,
+                                 boolean autopilotEngaged) implements Message {
+
+    private static final int SUBTYPE_START = 49, SUBTYPE_LENGTH = 2;
+    private static final int SELECTED_ALTITUDE_START = 36, SELECTED_ALTITUDE_LENGTH = 11;
+    private static final int PRESSURE_START = 27, PRESSURE_LENGTH = 9;
+    private static final int HEADING_STATUS_INDEX = 26;
+    private static final int HEADING_START = 17, HEADING_LENGTH = 9;
+    private static final int MODE_STATUS_INDEX = 9;
+    private static final int AUTOPILOT_INDEX = 8;
+    private static final int TARGET_STATE_SUBTYPE = 1;
+    private static final int ALTITUDE_STEP_FT = 32;
+    private static final double PRESSURE_OFFSET_HPA = 800, PRESSURE_STEP_HPA = 0.8;
+
+    /**
+     * the compact constructor of the class
+     *
+     * @throws NullPointerException     if the IcaoAdress is null
+     * @throws IllegalArgumentException if timeStamp is strictly less than 0, or the selected heading
+     *                                  is strictly negative
+     */
+    public TargetStateMessage {
+        Objects.requireNonNull(icaoAddress);
+        Preconditions.checkArgument(timeStampNs >= 0);
+        Preconditions.checkArgument(Double.isNaN(selectedHeading) || selectedHeading >= 0);
+    }
+
+    /**
+     * method that creates a TargetStateMessage from a RawMessage
+     *
+     * @param rawMessage the raw message
+     * @return the target state message corresponding to the given raw message, whose selected altitude
+     * in meters, pressure setting in hectopascals and selected heading in radians are NaN if not available,
+     * or null if its subtype is not the one of the target state and status messages
+     */
+    public static TargetStateMessage of(RawMessage rawMessage) {
+        long payload = rawMessage.payload();
+        if (Bits.extractUInt(payload, SUBTYPE_START, SUBTYPE_LENGTH) != TARGET_STATE_SUBTYPE)
+            return null;
+        int altitude = Bits.extractUInt(payload, SELECTED_ALTITUDE_START, SELECTED_ALTITUDE_LENGTH);
+        int pressure = Bits.extractUInt(payload, PRESSURE_START, PRESSURE_LENGTH);
+        double heading = Bits.testBit(payload, HEADING_STATUS_INDEX)
+                ? Units.convertFrom(Math.scalb(Bits.extractUInt(payload, HEADING_START, HEADING_LENGTH),
+                -HEADING_LENGTH), Units.Angle.TURN)
+                : Double.NaN;
+        return new TargetStateMessage(rawMessage.timeStampNs(),
+                rawMessage.icaoAddress(),
+                altitude == 0
+                        ? Double.NaN
+                        : Units.convertFrom((altitude - 1) * ALTITUDE_STEP_FT, Units.Length.FOOT),
+                pressure == 0 ? Double.NaN : PRESSURE_OFFSET_HPA + (pressure - 1) * PRESSURE_STEP_HPA,
+                heading,
+                Bits.testBit(payload, MODE_STATUS_INDEX) && Bits.testBit(payload, AUTOPILOT_INDEX));
+    }
+}
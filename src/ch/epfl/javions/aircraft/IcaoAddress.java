@@ -2,26 +2,98 @@ package ch.epfl.javions.aircraft;
 
 import ch.epfl.javions.Preconditions;
 
+import java.util.HexFormat;
 import java.util.regex.Pattern;
 
 /**
- * Defines the regular expression for Icao adress
+ * Represents an ICAO address, backed by its 24-bit value; its hexadecimal representation
+ * is only computed when asked for
  *
  * @author Andrei Pana 361249
  * @author David Fota 355816
  */
 
-public record IcaoAddress(String string) {
+public final class IcaoAddress {
 
     private static final  Pattern ER = Pattern.compile("[0-9A-F]{6}");
+    private static final HexFormat HF = HexFormat.of().withUpperCase();
+    private static final int DIGITS = 6;
+    private static final int BITS = 24;
+    private static final int CACHE_BITS = 16;
+    /**
+     * the canonical addresses, each one in the slot given by the hash of its value; a slot only keeps
+     * the last address of its hash that was asked for, but the addresses of the aircraft received at
+     * a given time are almost never in the same slot
+     */
+    private static final IcaoAddress[] CACHE = new IcaoAddress[1 << CACHE_BITS];
+
+    private final int value;
+    private String string;
 
     /**
-     * the compact constructor of the class
+     * the constructor of the class
      *
+     * @param string the hexadecimal representation of the address
      * @throws IllegalArgumentException if the string does not respect the regular expression
      */
-    public IcaoAddress {
+    public IcaoAddress(String string) {
         Preconditions.checkArgument(ER.matcher(string).matches());
+        this.value = Integer.parseInt(string, 16);
+        this.string = string;
+    }
+
+    private IcaoAddress(int value) {
+        this.value = value;
+    }
+
+    /**
+     * @param value the 24-bit value of the address
+     * @return the canonical address with the given value, which is the same object for the same value
+     * as long as no other address with the same hash was asked for in between
+     * @throws IllegalArgumentException if the value does not fit in 24 bits
+     */
+    public static IcaoAddress of(int value) {
+        Preconditions.checkArgument(value >>> BITS == 0);
+        int slot = (value * 0x9E3779B1) >>> (Integer.SIZE - CACHE_BITS);
+        IcaoAddress address = CACHE[slot];
+        if (address == null || address.value != value) {
+            address = new IcaoAddress(value);
+            CACHE[slot] = address;
+        }
+        return address;
+    }
+
+    /**
+     * @return the 24-bit value of the address
+     */
+    public int value() {
+        return value;
+    }
+
+    /**
+     * @return the hexadecimal representation of the address, made of 6 upper-case digits
+     */
+    public String string() {
+        String s = string;
+        if (s == null) {
+            s = HF.toHexDigits(value, DIGITS);
+            string = s;
+        }
+        return s;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IcaoAddress that && value == that.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return "IcaoAddress[string=" + string() + "]";
+    }
 }
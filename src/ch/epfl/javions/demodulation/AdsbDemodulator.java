@@ -1,10 +1,13 @@
 package ch.epfl.javions.demodulation;
 
+import ch.epfl.javions.Crc24;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.ErrorCorrection;
 import ch.epfl.javions.adsb.RawMessage;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Represents an ADSB Demodulator
@@ -13,22 +16,144 @@ import java.util.Arrays;
  * @author David Fota 355816
  */
 public final class AdsbDemodulator {
+    /** the duration of a position, i.e. of a power sample, whatever the format and the rate of the samples */
+    static final int NANO_PER_POS = 100;
+    static final int WINDOW_SIZE = 1200;
+    /**
+     * the maximum number of positions scanned for preambles at once, which bounds the size of the array
+     * of the candidates, so that a demodulator stays cheap to create
+     */
+    private static final int SEGMENT_MAX_SIZE = 1 << 13;
+    private static final Crc24 CRC24 = new Crc24(Crc24.GENERATOR);
+    /** the duration during which an aircraft received without error may have its frames corrected on two bits */
+    private static final long KNOWN_ADDRESS_LIFETIME_NS = 60_000_000_000L;
+    private static final int KNOWN_ADDRESSES_CAPACITY = 1 << 10;
+    /** the minimum ratio between the signal and noise powers of a preamble for its frame to be corrected on two bits */
+    private static final int DOUBLE_BIT_MIN_SNR = 10;
     PowerWindow window;
-    private int sumPCurrent, sumPPrevious, sumPAfter, sumV;
+    private int sumPPrevious;
     byte[] byteArray = new byte[RawMessage.LENGTH];
-    private final int NANO_PER_POS = 100;
-    private final int WINDOW_SIZE = 1200;
+    private final long sourcePosition;
+    private final long windowEndPosition;
+    private final PreambleScanner scanner = PreambleScanner.create();
+    /** the candidate positions of the last scanned segment, relative to its start */
+    private final int[] candidates;
+    private int candidateCount, candidateIndex;
+    private long segmentStart, segmentEnd;
+    private int segmentEndPreviousSum;
+    /** the time stamp and the preamble powers of the last message demodulated, whose bytes are in byteArray */
+    private long messageTimeStampNs;
+    private int messageSignalPower, messageNoisePower;
+    private ErrorCorrection errorCorrection = ErrorCorrection.NONE;
+    /** the addresses of the aircraft recently received in frames without error */
+    private final RecentAddresses knownAddresses =
+            new RecentAddresses(KNOWN_ADDRESS_LIFETIME_NS, KNOWN_ADDRESSES_CAPACITY);
+    private final DemodulatorStatistics statistics;
     private final int PREAMBLE_SIZE = 80;
-    private final int DOWNLINK_CORRECT_VALUE = 17;
-    private final int TOTAL_BYTES = 112;
-    private final int[] messageValleyIndexes = {5, 15, 20, 25, 30, 40};
-    private final int[] messageAfterIndexes = {1, 11, 36, 46};
-    private final int[] messageCurrentIndexes = {0, 10, 35, 45};
 
     public AdsbDemodulator(InputStream samplesStream) throws IOException {
-        window = new PowerWindow(samplesStream, WINDOW_SIZE);
-        sumPCurrent = computeSum(messageCurrentIndexes);
-        sumPPrevious = 0;
+        this(SamplesSource.of(samplesStream));
+    }
+
+    /**
+     * Builds a demodulator reading its samples directly from the given source,
+     * for example a memory-mapped capture file
+     *
+     * @param samplesSource the source of the samples
+     * @throws IOException in case of input/output error
+     */
+    public AdsbDemodulator(SamplesSource samplesSource) throws IOException {
+        this(samplesSource, 0, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Builds a demodulator reading its samples directly from the given source, which in low-latency mode
+     * only waits for small batches of samples, whose size adapts to the samples available without blocking;
+     * a live stream is then demodulated as it arrives, while a file is still read in large batches
+     *
+     * @param samplesSource the source of the samples
+     * @param lowLatency    true iff the demodulator is in low-latency mode
+     * @throws IOException in case of input/output error
+     */
+    public AdsbDemodulator(SamplesSource samplesSource, boolean lowLatency) throws IOException {
+        this(new PowerWindow(samplesSource, WINDOW_SIZE, lowLatency), 0, 0, Long.MAX_VALUE,
+                new DemodulatorStatistics());
+    }
+
+    /**
+     * Builds a demodulator only looking for messages starting between the two given positions,
+     * whose state when reaching the first one is the same as the one of a demodulator
+     * that would have read the source from its beginning without finding any message before
+     *
+     * @param samplesSource  the source of the samples, starting at the power sample sourcePosition
+     * @param sourcePosition the position of the first power sample of the source, which must be
+     *                       at least the 3 power samples preceding firstPosition - 1, if any
+     * @param firstPosition  the first position at which a message is looked for
+     * @param endPosition    the position at which the demodulator stops looking for messages
+     * @throws IOException in case of input/output error
+     */
+    AdsbDemodulator(SamplesSource samplesSource, long sourcePosition, long firstPosition, long endPosition)
+            throws IOException {
+        this(samplesSource, sourcePosition, firstPosition, endPosition, new DemodulatorStatistics());
+    }
+
+    /**
+     * Same as the constructor above, for a demodulator adding its counts to the given statistics,
+     * which may be shared with other demodulators running concurrently
+     *
+     * @param samplesSource  the source of the samples, starting at the power sample sourcePosition
+     * @param sourcePosition the position of the first power sample of the source
+     * @param firstPosition  the first position at which a message is looked for
+     * @param endPosition    the position at which the demodulator stops looking for messages
+     * @param statistics     the statistics to which the counts of the demodulator are added
+     * @throws IOException in case of input/output error
+     */
+    AdsbDemodulator(SamplesSource samplesSource, long sourcePosition, long firstPosition, long endPosition,
+                    DemodulatorStatistics statistics) throws IOException {
+        this(new PowerWindow(samplesSource, WINDOW_SIZE), sourcePosition, firstPosition, endPosition, statistics);
+    }
+
+    private AdsbDemodulator(PowerWindow window, long sourcePosition, long firstPosition, long endPosition,
+                            DemodulatorStatistics statistics) throws IOException {
+        Preconditions.checkArgument(0 <= sourcePosition && sourcePosition <= firstPosition);
+        this.statistics = Objects.requireNonNull(statistics);
+        this.window = window;
+        candidates = new int[SEGMENT_MAX_SIZE];
+        this.sourcePosition = sourcePosition;
+        this.windowEndPosition = endPosition - sourcePosition;
+        if (firstPosition == 0) {
+            sumPPrevious = 0;
+        } else {
+            window.advanceBy(Math.toIntExact(firstPosition - 1 - sourcePosition));
+            sumPPrevious = computePeakSum();
+            window.advance();
+        }
+    }
+
+    /**
+     * Builds a demodulator whose sample reading and power computation run on two threads of their own,
+     * handing off their batches through lock-free queues, while the preambles are detected and the bits
+     * sliced on the thread calling nextMessage; these threads stop at the end of the stream
+     *
+     * @param samplesStream the input stream containing the samples
+     * @return the pipelined demodulator
+     * @throws IOException in case of input/output error
+     */
+    public static AdsbDemodulator pipelined(InputStream samplesStream) throws IOException {
+        return pipelined(samplesStream, SampleFormat.UNSIGNED_12_LE);
+    }
+
+    /**
+     * Same as pipelined(InputStream), for a stream containing samples in the given format
+     *
+     * @param samplesStream the input stream containing the samples
+     * @param format        the format of the samples of the stream
+     * @return the pipelined demodulator
+     * @throws IOException in case of input/output error
+     */
+    public static AdsbDemodulator pipelined(InputStream samplesStream, SampleFormat format) throws IOException {
+        return new AdsbDemodulator(new PowerWindow(new DemodulationPipeline(samplesStream, format), WINDOW_SIZE),
+                0, 0, Long.MAX_VALUE, new DemodulatorStatistics());
     }
 
     /**
@@ -37,45 +162,155 @@ public final class AdsbDemodulator {
      * @return message, which represents the calculated Raw Message
      */
     public RawMessage nextMessage() throws IOException {
+        return demodulateNext()
+                ? new RawMessage(messageTimeStampNs, RawMessage.high(byteArray), RawMessage.low(byteArray),
+                messageSignalPower, messageNoisePower)
+                : null;
+    }
 
-        while (window.isFull()) {
-            sumPAfter = computeSum(messageAfterIndexes);
-            if (isEligibleForSumValleyCalculation()) {
-                sumV = computeSum(messageValleyIndexes);
-                if (isValid()) {
-                    Arrays.fill(byteArray, (byte) 0);
-                    for( int i = 0; i < TOTAL_BYTES; i += Long.BYTES)
-                    {
-                        fillByteArray(i);
-                    }
-                    var message = RawMessage.of(window.position() * NANO_PER_POS, byteArray);
-                    if (message != null && message.downLinkFormat() == DOWNLINK_CORRECT_VALUE) {
-                        window.advanceBy(WINDOW_SIZE - 1);
-                        sumPPrevious = computeSum(messageCurrentIndexes);
-                        sumPCurrent = computeSum(messageAfterIndexes);
-                        window.advance();
-                        return message;
+    /**
+     * Clears the given buffer, then fills it with the next messages that are found, until it is full
+     * or the end of the samples has been reached; no object is allocated per message
+     *
+     * @param buffer the buffer in which the messages are packed
+     * @return the number of messages placed in the buffer, which is smaller than its capacity
+     * only once the end of the samples has been reached
+     * @throws IOException in case of input/output error
+     */
+    public int nextMessages(PackedMessageBuffer buffer) throws IOException {
+        buffer.clear();
+        while (!buffer.isFull() && demodulateNext())
+            buffer.add(messageTimeStampNs, RawMessage.high(byteArray), RawMessage.low(byteArray),
+                    messageSignalPower, messageNoisePower);
+        return buffer.size();
+    }
+
+    /**
+     * Demodulates the next message that is found, placing its bytes in byteArray, its time stamp
+     * in messageTimeStampNs and the mean powers of the peaks and valleys of its preamble
+     * in messageSignalPower and messageNoisePower
+     *
+     * @return true iff a message was found before the end of the samples
+     * @throws IOException in case of input/output error
+     */
+    private boolean demodulateNext() throws IOException {
+        while (true) {
+            while (candidateIndex < candidateCount) {
+                long candidate = segmentStart + candidates[candidateIndex++];
+                if (candidate < window.position())
+                    continue;
+                window.advanceBy((int) (candidate - window.position()));
+                byteArray[0] = decodeByte(0);
+                if (RawMessage.size(byteArray[0]) != RawMessage.LENGTH) {
+                    statistics.wrongDownlinkFormatRejections.increment();
+                    continue;
+                }
+                int syndrome = CRC24.update(0, byteArray[0]);
+                for (int i = 1; i < RawMessage.LENGTH; i++) {
+                    byteArray[i] = decodeByte(i);
+                    syndrome = CRC24.update(syndrome, byteArray[i]);
+                }
+                messageTimeStampNs = (sourcePosition + window.position()) * NANO_PER_POS;
+                messageSignalPower = computePeakSum() / PreambleScanner.PEAK_INDEXES.length;
+                messageNoisePower = PreambleScanner.valleySum(window.samples(), window.offset())
+                        / PreambleScanner.VALLEY_INDEXES.length;
+                if (syndrome == 0) {
+                    knownAddresses.add(icaoAddress(), messageTimeStampNs);
+                } else {
+                    if (!correct(syndrome)) {
+                        statistics.crcFailures.increment();
+                        continue;
                     }
+                    statistics.correctedFrames.increment();
                 }
+                window.advanceBy(WINDOW_SIZE - 1);
+                sumPPrevious = computePeakSum();
+                window.advance();
+                statistics.messagesEmitted.increment();
+                return true;
             }
-            sumPPrevious = sumPCurrent;
-            sumPCurrent = sumPAfter;
-            window.advance();
+            if (window.position() < segmentEnd) {
+                window.advanceBy((int) (segmentEnd - window.position()));
+                sumPPrevious = segmentEndPreviousSum;
+            }
+            if (!window.isFull() || window.position() >= windowEndPosition)
+                return false;
+            scanSegment();
         }
-        return null;
     }
-    private int computeSum( int[] indexes ){
+
+    /**
+     * @return the statistics of the stages of this demodulator
+     */
+    public DemodulatorStatistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * Sets the correction applied to the frames whose CRC is not valid, which is none by default.
+     * A frame corrected on two bits is only accepted if the address it then carries was received
+     * in a frame without error during the last minute, and if the signal power of its preamble is
+     * at least 10 times its noise power: otherwise, as two-bit errors cover about one syndrome in 3000,
+     * noise alone gives about 2.3 frames per second of aircraft that do not exist.
+     *
+     * @param errorCorrection the correction
+     * @throws NullPointerException if the correction is null
+     */
+    public void setErrorCorrection(ErrorCorrection errorCorrection) {
+        this.errorCorrection = Objects.requireNonNull(errorCorrection);
+    }
+
+    /**
+     * Looks for the candidate positions among the next SEGMENT_MAX_SIZE ones, at most, starting at the
+     * current position, whose power samples are contiguous in the window
+     */
+    private void scanSegment() {
+        int[] power = window.samples();
+        int from = window.offset();
+        int count = (int) Math.min(Math.min(window.contiguousSize() - WINDOW_SIZE + 1, SEGMENT_MAX_SIZE),
+                windowEndPosition - window.position());
+        candidateCount = scanner.scan(power, from, from, from + count, sumPPrevious, candidates, 0);
+        statistics.samplesProcessed.add(count);
+        statistics.preambleCandidates.add(scanner.peakCount());
+        statistics.valleyCheckPasses.add(candidateCount);
+        candidateIndex = 0;
+        segmentStart = window.position();
+        segmentEnd = segmentStart + count;
+        segmentEndPreviousSum = PreambleScanner.peakSum(power, from + count - 1);
+    }
+
+    /**
+     * Corrects the frame in byteArray, whose time stamp and preamble powers are known
+     *
+     * @param syndrome the syndrome of the frame, which is not 0
+     * @return true iff the frame has been corrected, and is plausible enough to be accepted
+     */
+    private boolean correct(int syndrome) {
+        int flippedBits = errorCorrection.correct(byteArray, syndrome);
+        if (flippedBits < 2)
+            return flippedBits == 1;
+        return messageSignalPower >= (long) DOUBLE_BIT_MIN_SNR * messageNoisePower
+                && knownAddresses.contains(icaoAddress(), messageTimeStampNs);
+    }
+
+    /**
+     * @return the ICAO address of the frame in byteArray
+     */
+    private int icaoAddress() {
+        return (byteArray[1] & 0xFF) << 16 | (byteArray[2] & 0xFF) << 8 | byteArray[3] & 0xFF;
+    }
+
+    private int computePeakSum() {
         int s = 0;
-        for( int i : indexes)
+        for( int i : PreambleScanner.PEAK_INDEXES)
             s += window.get(i);
         return s;
     }
-    private void fillByteArray(int i)
-    {
-        for( int j = 0; j < Long.BYTES; j++ )
-        {
-            byteArray[i / Long.BYTES] |= (testBitValue(i + j) << (7 - j));
-        }
+    private byte decodeByte(int index) {
+        int b = 0;
+        for (int bit = index * Byte.SIZE; bit < (index + 1) * Byte.SIZE; bit++)
+            b = (b << 1) | testBitValue(bit);
+        return (byte) b;
     }
     private byte testBitValue(int index) {
         if (window.get(PREAMBLE_SIZE + 10 * index) >= window.get((PREAMBLE_SIZE + 5) + 10 * index))
@@ -83,10 +318,4 @@ public final class AdsbDemodulator {
         else
             return 0;
     }
-    private boolean isEligibleForSumValleyCalculation(){
-        return sumPCurrent > sumPPrevious && sumPCurrent > sumPAfter;
-    }
-    private boolean isValid(){
-        return sumPCurrent >= 2 * sumV;
-    }
-}
\ No newline at end of file
+}
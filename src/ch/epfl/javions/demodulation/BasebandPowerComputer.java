@@ -0,0 +1,125 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Represents a power computer for the I/Q pairs of a baseband signal, such as the ones of rtl_sdr: the power
+ * of a pair is its squared magnitude, and the power samples are interpolated linearly between the pairs,
+ * so that there is one every AdsbDemodulator.NANO_PER_POS nanoseconds, as for the other formats. The
+ * demodulator can then look for the preambles and slice the bits with the same timing, whatever the rate of
+ * the pairs; at 2.4 million pairs per second, a group of 6 pairs gives exactly a group of 25 positions.
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+final class BasebandPowerComputer implements PowerBatchReader {
+    /** the number of I/Q pairs of a group */
+    static final int GROUP_PAIRS = 6;
+    /** the number of positions of a group, the first of which falls exactly on the first pair of the group */
+    static final int GROUP_POSITIONS = 25;
+    /**
+     * the factor applied to the squared magnitude of a pair, so that a full-scale sinusoid has the same power
+     * as with the real samples, whose power is computed from sums of 4 samples
+     */
+    private static final int SCALE = 4 * 4;
+    /** the number of pairs read at once, a whole number of groups */
+    private static final int PAIRS_PER_READ = GROUP_PAIRS << 12;
+    /** the number of bytes of the samples read at once */
+    static final int BYTES_PER_READ = PAIRS_PER_READ * 2 * SampleFormat.UNSIGNED_8.bytesPerSample();
+    /** for each position of a group, the index of the pair preceding it in the group */
+    private static final int[] PAIR_INDEXES = new int[GROUP_POSITIONS];
+    /** for each position of a group, the weight of the pair following it, out of GROUP_POSITIONS */
+    private static final int[] WEIGHTS = new int[GROUP_POSITIONS];
+
+    static {
+        for (int k = 0; k < GROUP_POSITIONS; k++) {
+            PAIR_INDEXES[k] = k * GROUP_PAIRS / GROUP_POSITIONS;
+            WEIGHTS[k] = k * GROUP_PAIRS % GROUP_POSITIONS;
+        }
+    }
+
+    private final SamplesDecoder decoder;
+    private final short[] samples = new short[PAIRS_PER_READ * 2];
+    /** the power of the pairs read and not yet passed, the ones of the group of the next position first */
+    private final int[] pairPowers = new int[PAIRS_PER_READ + GROUP_PAIRS + 1];
+    private int pairCount;
+    /** the index, in pairPowers, of the first pair of the group of the next position */
+    private int groupIndex;
+    /** the index of the next position in its group */
+    private int phase;
+    private boolean ended;
+    private final int batchSize;
+
+    /**
+     * the constructor of the class
+     *
+     * @param source    the source of the samples, in a baseband format
+     * @param batchSize the maximum number of power samples computed at once
+     * @throws IllegalArgumentException if the batch size is not strictly positive, or the format of the source
+     *                                  is not a baseband one
+     * @throws NullPointerException     if the source is null
+     */
+    BasebandPowerComputer(SamplesSource source, int batchSize) {
+        Preconditions.checkArgument(batchSize > 0);
+        Preconditions.checkArgument(Objects.requireNonNull(source).format().isBaseband());
+        decoder = new SamplesDecoder(source, samples.length);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int readBatch(int[] batch, int offset, int count) throws IOException {
+        Preconditions.checkArgument(0 <= count && count <= batchSize);
+        Objects.checkFromIndexSize(offset, count, batch.length);
+        int n = 0;
+        while (n < count) {
+            int pair = groupIndex + PAIR_INDEXES[phase];
+            if (pair + 1 >= pairCount) {
+                if (!readPairs())
+                    break;
+                continue;
+            }
+            int weight = WEIGHTS[phase];
+            int power = (int) (((long) pairPowers[pair] * (GROUP_POSITIONS - weight)
+                    + (long) pairPowers[pair + 1] * weight) / GROUP_POSITIONS);
+            if (++phase == GROUP_POSITIONS) {
+                phase = 0;
+                groupIndex += GROUP_PAIRS;
+            }
+            batch[offset + n++] = power;
+        }
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        long pairs = pairCount - groupIndex - 1 + decoder.available() / 2;
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, pairs * GROUP_POSITIONS / GROUP_PAIRS - phase));
+    }
+
+    /**
+     * Moves the pairs of the group of the next position to the beginning of pairPowers,
+     * then reads the next pairs after them, unless the end of the samples has been reached
+     *
+     * @return true iff pairs have been read
+     * @throws IOException in case of input/output error
+     */
+    private boolean readPairs() throws IOException {
+        pairCount -= groupIndex;
+        System.arraycopy(pairPowers, groupIndex, pairPowers, 0, pairCount);
+        groupIndex = 0;
+        if (ended)
+            return false;
+        int read = decoder.readBatch(samples, 0, samples.length);
+        ended = read < samples.length;
+        int pairs = read / 2;
+        for (int p = 0; p < pairs; p++) {
+            int inPhase = samples[2 * p], quadrature = samples[2 * p + 1];
+            pairPowers[pairCount + p] = SCALE * (inPhase * inPhase + quadrature * quadrature);
+        }
+        pairCount += pairs;
+        return pairs > 0;
+    }
+}
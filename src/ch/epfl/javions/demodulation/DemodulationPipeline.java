@@ -0,0 +1,181 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Represents the first two stages of a pipelined demodulation: a thread reading the samples
+ * and a thread computing their power, which hand off their batches to the next stage through
+ * single-producer single-consumer ring buffers; the batches are recycled once consumed.
+ * A stage failing, whatever the exception, ends the stream with a batch carrying the exception,
+ * which the next stage rethrows, so that the consumer never waits for a batch that will not come.
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+final class DemodulationPipeline implements PowerBatchReader {
+    /** the number of batches in flight between two stages */
+    private static final int BATCHES_IN_FLIGHT = 4;
+    private static final int BATCH_SIZE = PowerWindow.WINDOW_MAX_SIZE;
+
+    private final SpscRingBuffer<SamplesBatch> filledSamples = new SpscRingBuffer<>(BATCHES_IN_FLIGHT);
+    private final SpscRingBuffer<SamplesBatch> freeSamples = new SpscRingBuffer<>(BATCHES_IN_FLIGHT);
+    private final SpscRingBuffer<PowerBatch> filledPower = new SpscRingBuffer<>(BATCHES_IN_FLIGHT);
+    private final SpscRingBuffer<PowerBatch> freePower = new SpscRingBuffer<>(BATCHES_IN_FLIGHT);
+    private final SampleFormat format;
+    /** the number of bytes of the samples read at once by the power computer of the second stage */
+    private final int batchBytes;
+    private boolean ended = false;
+
+    private static final class SamplesBatch {
+        final ByteBuffer bytes;
+        Throwable error;
+
+        SamplesBatch(int size) {
+            bytes = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static final class PowerBatch {
+        final int[] power = new int[BATCH_SIZE];
+        int count;
+        Throwable error;
+    }
+
+    /**
+     * the constructor of the class, which starts the threads of the first two stages
+     *
+     * @param stream the input stream containing the samples
+     * @param format the format of the samples of the stream
+     * @throws NullPointerException if the stream or the format is null
+     */
+    DemodulationPipeline(InputStream stream, SampleFormat format) {
+        Objects.requireNonNull(stream);
+        this.format = Objects.requireNonNull(format);
+        this.batchBytes = format.isBaseband()
+                ? BasebandPowerComputer.BYTES_PER_READ
+                : BATCH_SIZE * 2 * format.bytesPerSample();
+        for (int i = 0; i < BATCHES_IN_FLIGHT; i++) {
+            freeSamples.offer(new SamplesBatch(batchBytes));
+            freePower.offer(new PowerBatch());
+        }
+        start("javions-samples-reader", () -> readSamples(stream));
+        start("javions-power-computer", this::computePower);
+    }
+
+    /**
+     * Places the next batch of power samples computed by the second stage in the given array
+     *
+     * @param batch  the array in which the power samples are placed
+     * @param offset the index at which the first power sample is placed
+     * @param count  the number of power samples of the batch, which must be the size of the batches of the pipeline
+     * @return the number of power samples that have been placed in the array
+     * @throws IOException              in case of input/output error in one of the first two stages
+     * @throws IllegalArgumentException if the count is not the size of the batches of the pipeline
+     * @throws RuntimeException         or Error, the one that made one of the first two stages fail
+     */
+    @Override
+    public int readBatch(int[] batch, int offset, int count) throws IOException {
+        Preconditions.checkArgument(count == BATCH_SIZE);
+        if (ended)
+            return 0;
+        PowerBatch powerBatch = filledPower.take();
+        Throwable error = powerBatch.error;
+        int read = powerBatch.count;
+        System.arraycopy(powerBatch.power, 0, batch, offset, read);
+        freePower.put(powerBatch);
+        ended = error != null || read < BATCH_SIZE;
+        if (error != null)
+            rethrow(error);
+        return read;
+    }
+
+    /**
+     * The first stage, reading the samples from the stream
+     *
+     * @param stream the input stream containing the samples
+     */
+    private void readSamples(InputStream stream) {
+        boolean ended = false;
+        while (!ended) {
+            SamplesBatch batch = freeSamples.take();
+            try {
+                int count = stream.readNBytes(batch.bytes.array(), 0, batchBytes);
+                batch.bytes.limit(count).position(0);
+                ended = count < batchBytes;
+            } catch (Throwable e) {
+                batch.error = e;
+                ended = true;
+            }
+            filledSamples.put(batch);
+        }
+    }
+
+    /**
+     * The second stage, computing the power of the samples read by the first one
+     */
+    private void computePower() {
+        PowerBatchReader powerReader = PowerBatchReader.of(new SamplesSource() {
+            private SamplesBatch current;
+
+            @Override
+            public ByteBuffer read(int byteCount) throws IOException {
+                if (current != null)
+                    freeSamples.put(current);
+                current = filledSamples.take();
+                if (current.error != null)
+                    rethrow(current.error);
+                return current.bytes;
+            }
+
+            @Override
+            public SampleFormat format() {
+                return format;
+            }
+
+            @Override
+            public void close() {}
+        }, BATCH_SIZE);
+
+        boolean ended = false;
+        while (!ended) {
+            PowerBatch batch = freePower.take();
+            try {
+                batch.count = powerReader.readBatch(batch.power, 0, BATCH_SIZE);
+                ended = batch.count < BATCH_SIZE;
+            } catch (Throwable e) {
+                batch.count = 0;
+                batch.error = e;
+                ended = true;
+            }
+            filledPower.put(batch);
+        }
+    }
+
+    /**
+     * Throws the given exception, which made a stage fail, in the thread of the next stage
+     *
+     * @param error the exception
+     * @throws IOException if the exception is one
+     */
+    private static void rethrow(Throwable error) throws IOException {
+        if (error instanceof IOException ioException)
+            throw ioException;
+        if (error instanceof RuntimeException runtimeException)
+            throw runtimeException;
+        if (error instanceof Error e)
+            throw e;
+        throw new IOException(error);
+    }
+
+    private static void start(String name, Runnable stage) {
+        Thread thread = new Thread(stage, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,79 @@
+package ch.epfl.javions.demodulation;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents the counters of the stages of a demodulator, which are updated by the demodulating threads,
+ * possibly several ones sharing the same instance, and may be read from any other one, in particular
+ * through JMX once registered
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class DemodulatorStatistics implements DemodulatorStatisticsMXBean {
+    private static final String DOMAIN = "ch.epfl.javions";
+
+    final LongAdder samplesProcessed = new LongAdder();
+    final LongAdder preambleCandidates = new LongAdder();
+    final LongAdder valleyCheckPasses = new LongAdder();
+    final LongAdder wrongDownlinkFormatRejections = new LongAdder();
+    final LongAdder crcFailures = new LongAdder();
+    final LongAdder correctedFrames = new LongAdder();
+    final LongAdder messagesEmitted = new LongAdder();
+
+    /**
+     * Builds statistics whose counters are all zero, for example to be passed to a parallel demodulation
+     */
+    public DemodulatorStatistics() {}
+
+    /**
+     * Registers these statistics in the platform MBean server
+     *
+     * @param name the name distinguishing this demodulator from the other registered ones
+     * @return the name under which the statistics have been registered
+     * @throws JMException if the statistics cannot be registered, for example if the name is already used
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(DOMAIN + ":type=AdsbDemodulator,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getSamplesProcessed() {
+        return samplesProcessed.sum();
+    }
+
+    @Override
+    public long getPreambleCandidates() {
+        return preambleCandidates.sum();
+    }
+
+    @Override
+    public long getValleyCheckPasses() {
+        return valleyCheckPasses.sum();
+    }
+
+    @Override
+    public long getWrongDownlinkFormatRejections() {
+        return wrongDownlinkFormatRejections.sum();
+    }
+
+    @Override
+    public long getCrcFailures() {
+        return crcFailures.sum();
+    }
+
+    @Override
+    public long getCorrectedFrames() {
+        return correctedFrames.sum();
+    }
+
+    @Override
+    public long getMessagesEmitted() {
+        return messagesEmitted.sum();
+    }
+}
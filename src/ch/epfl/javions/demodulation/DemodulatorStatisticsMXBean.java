@@ -0,0 +1,44 @@
+package ch.epfl.javions.demodulation;
+
+/**
+ * Management interface of the statistics of a demodulator, published through JMX
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public interface DemodulatorStatisticsMXBean {
+    /**
+     * @return the number of power samples looked at for a preamble
+     */
+    long getSamplesProcessed();
+
+    /**
+     * @return the number of positions whose peak sum is greater than the ones of their neighbours
+     */
+    long getPreambleCandidates();
+
+    /**
+     * @return the number of preamble candidates whose peak sum is at least twice their valley sum
+     */
+    long getValleyCheckPasses();
+
+    /**
+     * @return the number of candidates rejected because of the downlink format of their first byte
+     */
+    long getWrongDownlinkFormatRejections();
+
+    /**
+     * @return the number of candidates rejected because of their CRC
+     */
+    long getCrcFailures();
+
+    /**
+     * @return the number of frames whose CRC was invalid that have been corrected
+     */
+    long getCorrectedFrames();
+
+    /**
+     * @return the number of messages returned by the demodulator
+     */
+    long getMessagesEmitted();
+}
@@ -0,0 +1,146 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Represents a source of samples read from a memory-mapped capture file;
+ * the file is mapped by regions, which the operating system pages in lazily
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class MappedSamplesSource implements SamplesSource {
+    /** the maximum size of a mapped region of the file */
+    private static final int REGION_MAX_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final SampleFormat format;
+    private final long end;
+    private long regionStart;
+    private MappedByteBuffer region;
+    private int regionOffset;
+
+    /**
+     * the constructor of the class
+     *
+     * @param channel     the channel of the capture file
+     * @param ownsChannel true iff the channel must be closed with this source
+     * @param format      the format of the samples of the file
+     * @param start       the position of the first byte to read
+     * @param end         the position following the last byte to read
+     * @throws IOException if the file cannot be mapped
+     */
+    MappedSamplesSource(FileChannel channel, boolean ownsChannel, SampleFormat format, long start, long end)
+            throws IOException {
+        Preconditions.checkArgument(0 <= start && start <= end);
+        this.channel = Objects.requireNonNull(channel);
+        this.ownsChannel = ownsChannel;
+        this.format = Objects.requireNonNull(format);
+        this.end = Math.min(end, channel.size());
+        map(Math.min(start, this.end));
+    }
+
+    /**
+     * Opens the given capture file
+     *
+     * @param path the path of the capture file
+     * @return a source reading all the samples of the file
+     * @throws IOException in case of input/output error
+     */
+    public static MappedSamplesSource open(Path path) throws IOException {
+        return open(path, SampleFormat.UNSIGNED_12_LE);
+    }
+
+    /**
+     * Opens the given capture file, containing samples in the given format
+     *
+     * @param path   the path of the capture file
+     * @param format the format of the samples of the file
+     * @return a source reading all the samples of the file
+     * @throws IOException in case of input/output error
+     */
+    public static MappedSamplesSource open(Path path, SampleFormat format) throws IOException {
+        return open(path, format, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Opens a range of the given capture file
+     *
+     * @param path  the path of the capture file
+     * @param start the position of the first byte to read
+     * @param end   the position following the last byte to read, clipped to the size of the file
+     * @return a source reading the samples of the given range of the file
+     * @throws IOException              in case of input/output error
+     * @throws IllegalArgumentException if start is negative or greater than end
+     */
+    public static MappedSamplesSource open(Path path, long start, long end) throws IOException {
+        return open(path, SampleFormat.UNSIGNED_12_LE, start, end);
+    }
+
+    /**
+     * Opens a range of the given capture file, containing samples in the given format
+     *
+     * @param path   the path of the capture file
+     * @param format the format of the samples of the file
+     * @param start  the position of the first byte to read
+     * @param end    the position following the last byte to read, clipped to the size of the file
+     * @return a source reading the samples of the given range of the file
+     * @throws IOException              in case of input/output error
+     * @throws IllegalArgumentException if start is negative or greater than end
+     */
+    public static MappedSamplesSource open(Path path, SampleFormat format, long start, long end)
+            throws IOException {
+        Objects.requireNonNull(format);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedSamplesSource(channel, true, format, start, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer read(int byteCount) throws IOException {
+        Preconditions.checkArgument(byteCount >= 0);
+        if (region.capacity() - regionOffset < byteCount && regionStart + region.capacity() < end)
+            map(regionStart + regionOffset);
+        int count = Math.min(byteCount, region.capacity() - regionOffset);
+        region.limit(regionOffset + count).position(regionOffset);
+        regionOffset += count;
+        return region;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - regionStart - regionOffset);
+    }
+
+    @Override
+    public SampleFormat format() {
+        return format;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsChannel)
+            channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        regionStart = start;
+        regionOffset = 0;
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_MAX_SIZE, end - start));
+        region.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,142 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.util.Objects;
+
+/**
+ * Represents a reusable buffer of raw messages, each packed into its time stamp, its signal and
+ * noise powers and two longs: the high one contains the bytes 0 to 7 of the message, the low one
+ * its bytes 8 to 13 in its 48 least significant bits, both in big-endian order
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class PackedMessageBuffer {
+    private final long[] timeStamps;
+    private final long[] highs;
+    private final long[] lows;
+    private final int[] signalPowers;
+    private final int[] noisePowers;
+    private int size = 0;
+
+    /**
+     * the constructor of the class
+     *
+     * @param capacity the maximum number of messages of the buffer
+     * @throws IllegalArgumentException if the capacity is not strictly positive
+     */
+    public PackedMessageBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0);
+        timeStamps = new long[capacity];
+        highs = new long[capacity];
+        lows = new long[capacity];
+        signalPowers = new int[capacity];
+        noisePowers = new int[capacity];
+    }
+
+    /**
+     * @return the maximum number of messages of the buffer
+     */
+    public int capacity() {
+        return timeStamps.length;
+    }
+
+    /**
+     * @return the number of messages of the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true iff the buffer contains as many messages as its capacity
+     */
+    public boolean isFull() {
+        return size == timeStamps.length;
+    }
+
+    /**
+     * Removes all the messages of the buffer
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param index the index of the message
+     * @return the time stamp of the message at the given index, in nanoseconds
+     * @throws IndexOutOfBoundsException if the index is not between 0 (inclusive) and the size (excluded)
+     */
+    public long timeStampNs(int index) {
+        return timeStamps[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @param index the index of the message
+     * @return the bytes 0 to 7 of the message at the given index
+     * @throws IndexOutOfBoundsException if the index is not between 0 (inclusive) and the size (excluded)
+     */
+    public long high(int index) {
+        return highs[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @param index the index of the message
+     * @return the bytes 8 to 13 of the message at the given index, in the 48 least significant bits
+     * @throws IndexOutOfBoundsException if the index is not between 0 (inclusive) and the size (excluded)
+     */
+    public long low(int index) {
+        return lows[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @param index the index of the message
+     * @return the mean power of the peaks of the preamble of the message at the given index
+     * @throws IndexOutOfBoundsException if the index is not between 0 (inclusive) and the size (excluded)
+     */
+    public int signalPower(int index) {
+        return signalPowers[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @param index the index of the message
+     * @return the mean power of the valleys of the preamble of the message at the given index
+     * @throws IndexOutOfBoundsException if the index is not between 0 (inclusive) and the size (excluded)
+     */
+    public int noisePower(int index) {
+        return noisePowers[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @param index the index of the message
+     * @return the raw message at the given index
+     * @throws IndexOutOfBoundsException if the index is not between 0 (inclusive) and the size (excluded)
+     */
+    public RawMessage rawMessage(int index) {
+        Objects.checkIndex(index, size);
+        return new RawMessage(timeStamps[index], highs[index], lows[index], signalPowers[index], noisePowers[index]);
+    }
+
+    /**
+     * Adds a message at the end of the buffer
+     *
+     * @param timeStampNs the time stamp of the message, in nanoseconds
+     * @param high        the bytes 0 to 7 of the message
+     * @param low         the bytes 8 to 13 of the message
+     * @param signalPower the mean power of the peaks of the preamble of the message
+     * @param noisePower  the mean power of the valleys of the preamble of the message
+     * @throws IllegalStateException if the buffer is full
+     */
+    void add(long timeStampNs, long high, long low, int signalPower, int noisePower) {
+        if (isFull())
+            throw new IllegalStateException();
+        timeStamps[size] = timeStampNs;
+        highs[size] = high;
+        lows[size] = low;
+        signalPowers[size] = signalPower;
+        noisePowers[size] = noisePower;
+        size++;
+    }
+}
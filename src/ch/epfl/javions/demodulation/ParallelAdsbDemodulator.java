@@ -0,0 +1,245 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.RawMessage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Demodulates a capture file in parallel, by splitting it into chunks which are demodulated
+ * independently on a fork/join pool, and whose messages are then merged so that the result is
+ * exactly the one that the sequential demodulator would produce
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class ParallelAdsbDemodulator {
+    /** the default number of positions in which messages are looked for by a single chunk */
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+    /** the number of power samples preceding a position needed to compute its power from real samples */
+    private static final int POWER_HISTORY = 3;
+
+    private final Path capture;
+    private final SampleFormat format;
+    /**
+     * the number of positions of a group, at the beginning of which the power computation can start,
+     * and the number of bytes of the samples from which their power is computed
+     */
+    private final int groupPositions, groupBytes;
+    /** the number of positions preceding a group needed to compute the power of its positions */
+    private final int powerHistory;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final DemodulatorStatistics statistics;
+    private FileChannel channel;
+    private List<RawMessage> messages;
+    private long nextFreePosition;
+
+    /**
+     * the constructor of the class
+     *
+     * @param capture   the path of the capture file
+     * @param format    the format of the samples of the capture file
+     * @param pool      the pool on which the chunks are demodulated
+     * @param chunkSize the number of positions in which messages are looked for by a single chunk
+     * @param statistics the statistics shared by the demodulators of all the chunks
+     * @throws IllegalArgumentException if the chunk size is not strictly positive
+     * @throws NullPointerException     if the path, the format, the pool or the statistics is null
+     */
+    ParallelAdsbDemodulator(Path capture, SampleFormat format, ForkJoinPool pool, int chunkSize,
+                            DemodulatorStatistics statistics) {
+        Preconditions.checkArgument(chunkSize > 0);
+        this.statistics = Objects.requireNonNull(statistics);
+        this.capture = Objects.requireNonNull(capture);
+        this.format = format;
+        if (format.isBaseband()) {
+            groupPositions = BasebandPowerComputer.GROUP_POSITIONS;
+            groupBytes = BasebandPowerComputer.GROUP_PAIRS * 2 * format.bytesPerSample();
+            powerHistory = 0;
+        } else {
+            groupPositions = 1;
+            groupBytes = 2 * format.bytesPerSample();
+            powerHistory = POWER_HISTORY;
+        }
+        this.pool = Objects.requireNonNull(pool);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Demodulates the given capture file on the common fork/join pool
+     *
+     * @param capture the path of the capture file
+     * @return the messages of the capture, in the order of their time stamps
+     * @throws IOException in case of input/output error
+     */
+    public static List<RawMessage> demodulate(Path capture) throws IOException {
+        return demodulate(capture, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Demodulates the given capture file on the given pool; the messages and their time stamps
+     * are exactly the ones that an AdsbDemodulator reading the whole file would return
+     *
+     * @param capture the path of the capture file
+     * @param pool    the pool on which the chunks are demodulated
+     * @return the messages of the capture, in the order of their time stamps
+     * @throws IOException in case of input/output error
+     */
+    public static List<RawMessage> demodulate(Path capture, ForkJoinPool pool) throws IOException {
+        return demodulate(capture, SampleFormat.UNSIGNED_12_LE, pool);
+    }
+
+    /**
+     * Demodulates the given capture file, containing samples in the given format, on the given pool
+     *
+     * @param capture the path of the capture file
+     * @param format  the format of the samples of the capture file
+     * @param pool    the pool on which the chunks are demodulated
+     * @return the messages of the capture, in the order of their time stamps
+     * @throws IOException in case of input/output error
+     */
+    public static List<RawMessage> demodulate(Path capture, SampleFormat format, ForkJoinPool pool)
+            throws IOException {
+        return demodulate(capture, format, pool, new DemodulatorStatistics());
+    }
+
+    /**
+     * Same as demodulate(Path, SampleFormat, ForkJoinPool), adding the counts of the demodulators of all
+     * the chunks to the given statistics, which can be registered beforehand to follow the progress through JMX;
+     * the stage counters include the positions demodulated again around the limits of the chunks,
+     * but the number of messages emitted is the one of the returned list
+     *
+     * @param capture    the path of the capture file
+     * @param format     the format of the samples of the capture file
+     * @param pool       the pool on which the chunks are demodulated
+     * @param statistics the statistics to which the counts are added
+     * @return the messages of the capture, in the order of their time stamps
+     * @throws IOException in case of input/output error
+     */
+    public static List<RawMessage> demodulate(Path capture, SampleFormat format, ForkJoinPool pool,
+                                              DemodulatorStatistics statistics) throws IOException {
+        return new ParallelAdsbDemodulator(capture, format, pool, DEFAULT_CHUNK_SIZE, statistics).demodulate();
+    }
+
+    /**
+     * Demodulates the capture file passed to the constructor
+     *
+     * @return the messages of the capture, in the order of their time stamps
+     * @throws IOException in case of input/output error
+     */
+    List<RawMessage> demodulate() throws IOException {
+        try (FileChannel channel = FileChannel.open(capture, StandardOpenOption.READ)) {
+            this.channel = channel;
+            messages = new ArrayList<>();
+            nextFreePosition = 0;
+            long positions = channel.size() / groupBytes * groupPositions;
+
+            List<Callable<List<RawMessage>>> chunks = new ArrayList<>();
+            for (long start = 0; start < positions; start += chunkSize) {
+                long chunkStart = start, chunkEnd = Math.min(start + chunkSize, positions);
+                chunks.add(() -> demodulateRange(chunkStart, chunkEnd));
+            }
+            List<Future<List<RawMessage>>> results = pool.invokeAll(chunks);
+
+            for (int i = 0; i < results.size(); i++) {
+                long chunkStart = (long) i * chunkSize;
+                long chunkEnd = Math.min(chunkStart + chunkSize, positions);
+                merge(chunkEnd, getResult(results.get(i)));
+            }
+            return messages;
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Adds to the result the messages found by a demodulator that looked for messages
+     * up to the given end position, starting at a position at which the sequential demodulator
+     * was either looking for messages or skipping the samples of a message ending at nextFreePosition.
+     * A message found while the sequential demodulator is skipping samples is dropped, and the positions
+     * that the chunk skipped because of it are demodulated again.
+     *
+     * @param end   the position at which the demodulator stopped looking for messages
+     * @param found the messages found by the demodulator
+     * @throws IOException in case of input/output error
+     */
+    private void merge(long end, List<RawMessage> found) throws IOException {
+        for (RawMessage message : found) {
+            long position = message.timeStampNs() / AdsbDemodulator.NANO_PER_POS;
+            if (position >= nextFreePosition) {
+                messages.add(message);
+                nextFreePosition = position + AdsbDemodulator.WINDOW_SIZE;
+            } else {
+                statistics.messagesEmitted.decrement();
+                long skippedEnd = Math.min(position + AdsbDemodulator.WINDOW_SIZE, end);
+                if (nextFreePosition < skippedEnd)
+                    merge(skippedEnd, demodulateRange(nextFreePosition, skippedEnd));
+            }
+        }
+    }
+
+    /**
+     * Looks for the messages starting between the two given positions
+     *
+     * @param start the first position at which a message is looked for
+     * @param end   the position at which the demodulator stops looking for messages
+     * @return the messages found, as the sequential demodulator would find them
+     * if it was looking for messages when reaching the start position
+     * @throws IOException in case of input/output error
+     */
+    private List<RawMessage> demodulateRange(long start, long end) throws IOException {
+        long sourceStart = Math.max(0, start - 1 - powerHistory) / groupPositions * groupPositions;
+        long sourceEnd = end + AdsbDemodulator.WINDOW_SIZE - 1;
+        List<RawMessage> found = new ArrayList<>();
+        try (SamplesSource source = new MappedSamplesSource(channel, false, format,
+                byteOffset(sourceStart), byteOffset(sourceEnd + groupPositions - 1) + endBytes())) {
+            AdsbDemodulator demodulator = new AdsbDemodulator(source, sourceStart, start, end, statistics);
+            RawMessage message;
+            while ((message = demodulator.nextMessage()) != null)
+                found.add(message);
+        }
+        return found;
+    }
+
+    /**
+     * @param position a position
+     * @return the offset of the first byte of the samples of the group of the given position
+     */
+    private long byteOffset(long position) {
+        return position / groupPositions * groupBytes;
+    }
+
+    /**
+     * @return the number of bytes following the last group of a range needed to compute the power of its
+     * positions, which is the one of the pair following it for baseband samples, interpolated with its last one
+     */
+    private int endBytes() {
+        return format.isBaseband() ? 2 * format.bytesPerSample() : 0;
+    }
+
+    private static List<RawMessage> getResult(Future<List<RawMessage>> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException)
+                throw uncheckedIOException.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
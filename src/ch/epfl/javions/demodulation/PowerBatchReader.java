@@ -0,0 +1,63 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+
+/**
+ * Represents a reader of batches of power samples
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+interface PowerBatchReader {
+    /**
+     * Places the next batch of power samples in the given array, starting at the given offset
+     *
+     * @param batch  the array in which the power samples are placed
+     * @param offset the index at which the first power sample is placed
+     * @param count  the number of power samples of the batch
+     * @return the number of power samples that have been placed in the array, which is smaller than
+     * the requested count only once the end of the samples has been reached
+     * @throws IOException in case of input/output error
+     */
+    int readBatch(int[] batch, int offset, int count) throws IOException;
+
+    /**
+     * @return an estimate of the number of power samples that can be read without blocking
+     * @throws IOException in case of input/output error
+     */
+    default int available() throws IOException {
+        return 0;
+    }
+
+    /**
+     * @param source    the source of the samples
+     * @param batchSize the maximum number of power samples read at once
+     * @return a reader of the batches of power samples computed from the samples of the given source,
+     * according to their format
+     * @throws IllegalArgumentException if the batch size is not valid
+     * @throws NullPointerException     if the source is null
+     */
+    static PowerBatchReader of(SamplesSource source, int batchSize) {
+        return source.format().isBaseband()
+                ? new BasebandPowerComputer(source, batchSize)
+                : of(new PowerComputer(source, batchSize));
+    }
+
+    /**
+     * @param powerComputer the power computer
+     * @return a reader of the batches of power samples computed by the given power computer
+     */
+    static PowerBatchReader of(PowerComputer powerComputer) {
+        return new PowerBatchReader() {
+            @Override
+            public int readBatch(int[] batch, int offset, int count) throws IOException {
+                return powerComputer.readBatch(batch, offset, count);
+            }
+
+            @Override
+            public int available() throws IOException {
+                return powerComputer.available();
+            }
+        };
+    }
+}
@@ -4,17 +4,21 @@ import ch.epfl.javions.Preconditions;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Objects;
 
 /**
- * Represents a power computer
+ * Represents a power computer for real samples of a signal whose carrier is at a quarter of the sample rate;
+ * the power of baseband I/Q pairs is computed by BasebandPowerComputer
  *
  * @author David Fota 355816
  * @author Andrei Pana 361249
  */
 public final class PowerComputer {
+    /** the number of samples preceding a pair of samples needed to compute its power */
+    private static final int HISTORY = 6;
     private final SamplesDecoder decoder;
-    private short[] signedBatch;
-    private int[] current8bytes = new int[8];
+    /** the samples of the batch, preceded by the last HISTORY samples of the previous one */
+    private final short[] samples;
     private final int batchSize;
 
     /**
@@ -27,11 +31,24 @@ public final class PowerComputer {
      *                                  is not multiple of 8 or if it is negative
      */
     public PowerComputer(InputStream stream, int batchSize) {
+        this(SamplesSource.of(stream), batchSize);
+    }
+
+    /**
+     * @param source, batchSize
+     *                The source of the bytes received by the decoder
+     *                Size of the batch that is to be computed
+     * @throws IllegalArgumentException if the size of the batch
+     *                                  is not multiple of 8 or if it is negative,
+     *                                  or if the samples of the source are baseband I/Q pairs
+     */
+    public PowerComputer(SamplesSource source, int batchSize) {
         Preconditions.checkArgument(batchSize % Byte.SIZE == 0 && batchSize > 0);
-        SamplesDecoder decoder = new SamplesDecoder(stream, batchSize * 2);
+        Preconditions.checkArgument(!source.format().isBaseband());
+        SamplesDecoder decoder = new SamplesDecoder(source, batchSize * 2);
         this.decoder = decoder;
         this.batchSize = batchSize;
-        signedBatch = new short[batchSize * 2];
+        samples = new short[HISTORY + batchSize * 2];
     }
 
     /**
@@ -47,21 +64,54 @@ public final class PowerComputer {
      */
     public int readBatch(int[] batch) throws IOException {
         Preconditions.checkArgument(batch.length == batchSize);
-        int count = decoder.readBatch(signedBatch);
-        for (int i = 0, j = 0; i < count; i += 2, j += 2)
-        {
-            if( j == Long.BYTES )
-                j = 0;
-            current8bytes[j] = signedBatch[i];
-            current8bytes[j + 1] = signedBatch[i + 1];
-            batch[i / 2] = squareSumComputation(current8bytes);
+        return readBatch(batch, 0);
+    }
+
+    /**
+     * Same as readBatch(int[]), but places the power samples in the given array
+     * starting at the given offset
+     *
+     * @param batch  the array in which the power samples are placed
+     * @param offset the index at which the first power sample is placed
+     * @return the number of power samples that have been placed in the table
+     * @throws IOException               in case of input/output error
+     * @throws IndexOutOfBoundsException if a batch does not fit in the array at the given offset
+     */
+    int readBatch(int[] batch, int offset) throws IOException {
+        return readBatch(batch, offset, batchSize);
+    }
+
+    /**
+     * Same as readBatch(int[], int), but computes at most the given number of power samples
+     *
+     * @param batch      the array in which the power samples are placed
+     * @param offset     the index at which the first power sample is placed
+     * @param powerCount the number of power samples to compute, at most the size of a batch
+     * @return the number of power samples that have been placed in the table, which is smaller
+     * than the given count only once the end of the samples has been reached
+     * @throws IOException               in case of input/output error
+     * @throws IllegalArgumentException  if the count is negative or greater than the size of a batch
+     * @throws IndexOutOfBoundsException if the power samples do not fit in the array at the given offset
+     */
+    int readBatch(int[] batch, int offset, int powerCount) throws IOException {
+        Preconditions.checkArgument(0 <= powerCount && powerCount <= batchSize);
+        Objects.checkFromIndexSize(offset, powerCount, batch.length);
+        int count = decoder.readBatch(samples, HISTORY, powerCount * 2);
+        int computed = count / 2;
+        for (int n = 0, i = HISTORY; n < computed; n++, i += 2) {
+            int inPhase = samples[i] - samples[i - 2] + samples[i - 4] - samples[i - 6];
+            int quadrature = samples[i + 1] - samples[i - 1] + samples[i - 3] - samples[i - 5];
+            batch[offset + n] = inPhase * inPhase + quadrature * quadrature;
         }
-        return count / 2;
+        System.arraycopy(samples, count, samples, 0, HISTORY);
+        return computed;
     }
-    private int squareSumComputation(int[] current8bytes) {
-        return (current8bytes[0] - current8bytes[2] + current8bytes[4] - current8bytes[6])*
-                    (current8bytes[0] - current8bytes[2] + current8bytes[4] - current8bytes[6])+
-                        (current8bytes[1] - current8bytes[3] + current8bytes[5] - current8bytes[7])*
-                            (current8bytes[1] - current8bytes[3] + current8bytes[5] - current8bytes[7]);
+
+    /**
+     * @return an estimate of the number of power samples that can be computed without blocking
+     * @throws IOException in case of input/output error
+     */
+    int available() throws IOException {
+        return decoder.available() / 2;
     }
 }
@@ -14,17 +14,29 @@ import java.util.Objects;
  */
 public final class PowerWindow {
     /**the maximum size of the window*/
-    private static final int WINDOW_MAX_SIZE = 1 << 16;
+    static final int WINDOW_MAX_SIZE = 1 << 16;
+    /** the number of power samples kept, two batches of the power computer */
+    private static final int RING_SIZE = 2 * WINDOW_MAX_SIZE;
+    private static final int RING_MASK = RING_SIZE - 1;
+    /** the minimum size of a batch in low-latency mode, which is a divisor of RING_SIZE */
+    private static final int MIN_BATCH_SIZE = 1 << 8;
     /** the size of the window*/
     private final int windowSize;
 
     private long position = 0;
     private long samplesDecoded = 0;
-    private int[] batch1;
-    private int[] batch2;
+    /** the number of power samples requested from the power computer so far */
+    private long samplesRequested = 0;
+    /**
+     * the ring buffer containing the power samples, followed by a copy of its first windowSize
+     * samples, so that the window is always contiguous in the array
+     */
+    private final int[] ring;
     private int index = 0;
 
-    private final PowerComputer powerComputer;
+    private final PowerBatchReader powerReader;
+    /** true iff the batches only contain the power samples available without blocking */
+    private final boolean lowLatency;
 
     /**
      * the constructor of the class
@@ -35,12 +47,56 @@ public final class PowerWindow {
      *      the size of the window
      */
     public PowerWindow(InputStream stream, int windowSize) throws IOException {
+        this(SamplesSource.of(stream), windowSize);
+    }
+
+    /**
+     * the constructor of the class
+     *
+     * @param source
+     *      the source of the samples
+     * @param windowSize
+     *      the size of the window
+     */
+    public PowerWindow(SamplesSource source, int windowSize) throws IOException {
+        this(source, windowSize, false);
+    }
+
+    /**
+     * the constructor of the class; in low-latency mode, the window only reads the power samples
+     * that are available without blocking, in batches of at least MIN_BATCH_SIZE samples, instead of
+     * waiting for batches of WINDOW_MAX_SIZE samples, so that a live stream is processed as it arrives
+     *
+     * @param source
+     *      the source of the samples
+     * @param windowSize
+     *      the size of the window
+     * @param lowLatency
+     *      true iff the window is in low-latency mode
+     */
+    public PowerWindow(SamplesSource source, int windowSize, boolean lowLatency) throws IOException {
+        this(PowerBatchReader.of(source, WINDOW_MAX_SIZE), windowSize, lowLatency);
+    }
+
+    /**
+     * the constructor of the class
+     *
+     * @param powerReader
+     *      the reader of the batches of WINDOW_MAX_SIZE power samples
+     * @param windowSize
+     *      the size of the window
+     */
+    PowerWindow(PowerBatchReader powerReader, int windowSize) throws IOException {
+        this(powerReader, windowSize, false);
+    }
+
+    private PowerWindow(PowerBatchReader powerReader, int windowSize, boolean lowLatency) throws IOException {
         Preconditions.checkArgument(windowSize > 0 && windowSize <= WINDOW_MAX_SIZE);
         this.windowSize = windowSize;
-        batch1 = new int[WINDOW_MAX_SIZE];
-        batch2 = new int[WINDOW_MAX_SIZE];
-        powerComputer = new PowerComputer(stream, WINDOW_MAX_SIZE);
-        samplesDecoded += powerComputer.readBatch(batch1);
+        ring = new int[RING_SIZE + windowSize];
+        this.powerReader = Objects.requireNonNull(powerReader);
+        this.lowLatency = lowLatency;
+        fill();
     }
 
     /**
@@ -79,10 +135,30 @@ public final class PowerWindow {
      */
 
     public int get(int i) {
-        Objects.checkIndex(i,windowSize);
-        if (i + index < WINDOW_MAX_SIZE)
-            return batch1[index + i];
-        else return batch2[i + index - WINDOW_MAX_SIZE];
+        Objects.checkIndex(i, windowSize);
+        return ring[index + i];
+    }
+
+    /**
+     * @return the array containing the power samples of the window, starting at index offset()
+     */
+    int[] samples() {
+        return ring;
+    }
+
+    /**
+     * @return the index of the first power sample of the window in the array returned by samples()
+     */
+    int offset() {
+        return index;
+    }
+
+    /**
+     * @return the number of power samples already read that directly follow offset() in the array
+     * returned by samples(), including the ones of the window
+     */
+    int contiguousSize() {
+        return (int) Math.max(0, Math.min(samplesDecoded - position, ring.length - index));
     }
 
     /**
@@ -93,16 +169,8 @@ public final class PowerWindow {
 
     public void advance() throws IOException {
         position++;
-        index++;
-        if (index + windowSize - 1 == WINDOW_MAX_SIZE) {
-            samplesDecoded += powerComputer.readBatch(batch2);
-        }
-        if (index >= WINDOW_MAX_SIZE) {
-            int[] aux = batch2;
-            batch2 = batch1;
-            batch1 = aux;
-            index = 0;
-        }
+        index = (index + 1) & RING_MASK;
+        fill();
     }
 
     /**
@@ -116,8 +184,49 @@ public final class PowerWindow {
 
     public void advanceBy(int offset) throws IOException {
         Preconditions.checkArgument(offset >= 0);
-        for (int i = 0; i < offset; i++) {
-            advance();
+        position += offset;
+        index = (int) (position & RING_MASK);
+        fill();
+    }
+
+    /**
+     * reads batches of power samples until the window is covered by the samples requested
+     *
+     * @throws IOException if there is a problem in power computer
+     */
+    private void fill() throws IOException {
+        while (position + windowSize > samplesRequested) {
+            readBatch();
         }
     }
+
+    /**
+     * reads the next batch of power samples in the part of the ring buffer
+     * which does not contain the window, copying its samples that are among the first
+     * windowSize ones of the ring buffer after its end
+     *
+     * @throws IOException if there is a problem in power computer
+     */
+    private void readBatch() throws IOException {
+        int offset = (int) (samplesRequested & RING_MASK);
+        int count = batchSize(offset);
+        samplesDecoded += powerReader.readBatch(ring, offset, count);
+        samplesRequested += count;
+        if (offset < windowSize)
+            System.arraycopy(ring, offset, ring, RING_SIZE + offset, Math.min(count, windowSize - offset));
+    }
+
+    /**
+     * @param offset the index at which the batch is placed in the ring buffer
+     * @return the size of the next batch, which in low-latency mode is the number of power samples
+     * available without blocking, rounded down to a multiple of MIN_BATCH_SIZE and clipped
+     * between MIN_BATCH_SIZE and WINDOW_MAX_SIZE, without going past the end of the ring buffer
+     * @throws IOException if there is a problem in power computer
+     */
+    private int batchSize(int offset) throws IOException {
+        if (!lowLatency)
+            return WINDOW_MAX_SIZE;
+        int available = powerReader.available() & -MIN_BATCH_SIZE;
+        return Math.min(Math.max(available, MIN_BATCH_SIZE), Math.min(WINDOW_MAX_SIZE, RING_SIZE - offset));
+    }
 }
@@ -0,0 +1,76 @@
+package ch.epfl.javions.demodulation;
+
+/**
+ * Represents a scanner looking for the positions of a batch of power samples
+ * at which the preamble of a message could start
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+interface PreambleScanner {
+    /** the indexes, relative to a position, of the power peaks of a preamble */
+    int[] PEAK_INDEXES = {0, 10, 35, 45};
+    /** the indexes, relative to a position, of the power valleys of a preamble */
+    int[] VALLEY_INDEXES = {5, 15, 20, 25, 30, 40};
+    /** the number of power samples following a position needed to scan it */
+    int LOOK_AHEAD = 47;
+
+    /**
+     * Looks for the positions whose peak sum is strictly greater than the ones of the previous
+     * and the next positions, and at least twice the valley sum
+     *
+     * @param power       the power samples, containing at least LOOK_AHEAD - 1 samples after index to - 1
+     * @param base        the index to which the candidates are relative
+     * @param from        the index of the first position to scan
+     * @param to          the index following the last position to scan
+     * @param previousSum the peak sum of the position preceding the first one
+     * @param candidates  the array in which the candidates are placed, as indexes relative to base
+     * @param count       the number of candidates already placed in the array, after which the new ones are placed
+     * @return the total number of candidates in the array
+     */
+    int scan(int[] power, int base, int from, int to, int previousSum, int[] candidates, int count);
+
+    /**
+     * @return the number of positions whose peak sum was strictly greater than the ones of the previous
+     * and the next positions during the last call to scan, whether or not they passed the valley test
+     */
+    int peakCount();
+
+    /**
+     * Creates a scanner. The vector one lives in the separate source root src-vector, as it can only be
+     * compiled with --add-modules jdk.incubator.vector, so that the sources in src compile without it;
+     * it is used if its classes are on the class path and the JVM was started with the same option.
+     *
+     * @return a scanner using the Vector API if it is available, and a scalar one otherwise
+     */
+    static PreambleScanner create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (PreambleScanner) Class.forName("ch.epfl.javions.demodulation.VectorPreambleScanner")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarPreambleScanner();
+            }
+        }
+        return new ScalarPreambleScanner();
+    }
+
+    /**
+     * @param power the power samples
+     * @param i     the index of the position
+     * @return the peak sum of the given position
+     */
+    static int peakSum(int[] power, int i) {
+        return power[i] + power[i + 10] + power[i + 35] + power[i + 45];
+    }
+
+    /**
+     * @param power the power samples
+     * @param i     the index of the position
+     * @return the valley sum of the given position
+     */
+    static int valleySum(int[] power, int i) {
+        return power[i + 5] + power[i + 15] + power[i + 20] + power[i + 25] + power[i + 30] + power[i + 40];
+    }
+}
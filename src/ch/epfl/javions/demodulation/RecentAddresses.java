@@ -0,0 +1,90 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Represents the set of the ICAO addresses received recently in frames without error, which are kept
+ * for a given lifetime in a bounded open-addressing hash table: an address is only looked for among
+ * PROBES consecutive slots, the oldest of which is replaced once they are all taken by recent addresses,
+ * so that no memory is allocated after construction
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+final class RecentAddresses {
+    /** the number of slots in which an address is looked for */
+    private static final int PROBES = 8;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long lifetimeNs;
+    private final int mask;
+    private final int[] addresses;
+    private final long[] timeStamps;
+
+    /**
+     * the constructor of the class
+     *
+     * @param lifetimeNs the duration, in nanoseconds, during which an address is kept once received
+     * @param capacity   the number of slots of the table, which must be a power of two of at least PROBES
+     * @throws IllegalArgumentException if the lifetime is not strictly positive, or the capacity is not valid
+     */
+    RecentAddresses(long lifetimeNs, int capacity) {
+        Preconditions.checkArgument(lifetimeNs > 0);
+        Preconditions.checkArgument(capacity >= PROBES && Integer.bitCount(capacity) == 1);
+        this.lifetimeNs = lifetimeNs;
+        mask = capacity - 1;
+        addresses = new int[capacity];
+        timeStamps = new long[capacity];
+        Arrays.fill(timeStamps, EMPTY);
+    }
+
+    /**
+     * Remembers that the given address has been received at the given time
+     *
+     * @param address     the 24-bit ICAO address
+     * @param timeStampNs the time stamp of the frame, in nanoseconds
+     */
+    void add(int address, long timeStampNs) {
+        int first = slot(address);
+        int free = -1, oldest = first;
+        for (int p = 0; p < PROBES; p++) {
+            int i = (first + p) & mask;
+            if (timeStamps[i] != EMPTY && addresses[i] == address) {
+                timeStamps[i] = timeStampNs;
+                return;
+            }
+            if (free < 0 && !isRecent(i, timeStampNs))
+                free = i;
+            if (timeStamps[i] < timeStamps[oldest])
+                oldest = i;
+        }
+        int i = free >= 0 ? free : oldest;
+        addresses[i] = address;
+        timeStamps[i] = timeStampNs;
+    }
+
+    /**
+     * @param address     the 24-bit ICAO address
+     * @param timeStampNs the current time stamp, in nanoseconds
+     * @return true iff the given address has been received less than the lifetime before the given time
+     */
+    boolean contains(int address, long timeStampNs) {
+        int first = slot(address);
+        for (int p = 0; p < PROBES; p++) {
+            int i = (first + p) & mask;
+            if (addresses[i] == address && isRecent(i, timeStampNs))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isRecent(int i, long timeStampNs) {
+        return timeStamps[i] != EMPTY && timeStampNs - timeStamps[i] < lifetimeNs;
+    }
+
+    private int slot(int address) {
+        return (address * 0x9E3779B1) >>> 16 & mask;
+    }
+}
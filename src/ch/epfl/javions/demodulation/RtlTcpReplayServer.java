@@ -0,0 +1,115 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Represents a local stand-in for an rtl_tcp server, which replays a capture file of unsigned
+ * 8-bit samples, such as the baseband I/Q pairs written by rtl_sdr, to each client connecting to it,
+ * one client at a time; the file is sent with
+ * FileChannel.transferTo, and the commands sent by the clients are ignored
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class RtlTcpReplayServer implements Closeable {
+    /** the type of the tuner announced to the clients, which is the one of the R820T */
+    private static final int TUNER_TYPE = 5;
+    /** the number of gains announced to the clients, which is the one of the R820T */
+    private static final int GAIN_COUNT = 29;
+    private static final int COMMANDS_BUFFER_SIZE = 1 << 10;
+
+    private final Path capture;
+    private final ServerSocketChannel server;
+
+    private RtlTcpReplayServer(Path capture, ServerSocketChannel server) {
+        this.capture = capture;
+        this.server = server;
+    }
+
+    /**
+     * Starts a server replaying the given capture file, on a daemon thread of its own
+     *
+     * @param capture the path of the capture file, containing unsigned 8-bit samples
+     * @param address the address to which the server is bound, whose port may be 0
+     *                for the system to pick one
+     * @return the started server
+     * @throws IOException if the server cannot be bound to the address
+     */
+    public static RtlTcpReplayServer start(Path capture, SocketAddress address) throws IOException {
+        Objects.requireNonNull(capture);
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(Objects.requireNonNull(address));
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+        RtlTcpReplayServer replayServer = new RtlTcpReplayServer(capture, server);
+        Thread thread = new Thread(replayServer::serve, "javions-rtl-tcp-replay");
+        thread.setDaemon(true);
+        thread.start();
+        return replayServer;
+    }
+
+    /**
+     * @return the address to which the server is bound
+     * @throws IOException in case of input/output error
+     */
+    public InetSocketAddress address() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    /**
+     * Stops accepting clients
+     *
+     * @throws IOException in case of input/output error
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void serve() {
+        while (server.isOpen()) {
+            try (SocketChannel client = server.accept()) {
+                replay(client);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // the client went away, the next one is served
+            }
+        }
+    }
+
+    private void replay(SocketChannel client) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RtlTcpSamplesSource.HEADER_SIZE)
+                .put(RtlTcpSamplesSource.MAGIC)
+                .putInt(TUNER_TYPE)
+                .putInt(GAIN_COUNT)
+                .flip();
+        while (header.hasRemaining())
+            client.write(header);
+        try (FileChannel file = FileChannel.open(capture, StandardOpenOption.READ)) {
+            long position = 0, size = file.size();
+            while (position < size)
+                position += file.transferTo(position, size - position, client);
+        }
+        // the commands of the client are drained until it closes the connection, so that closing
+        // it with unread commands does not reset the connection before the client has read the samples
+        client.shutdownOutput();
+        ByteBuffer commands = ByteBuffer.allocate(COMMANDS_BUFFER_SIZE);
+        while (client.read(commands.clear()) >= 0) {
+        }
+    }
+}
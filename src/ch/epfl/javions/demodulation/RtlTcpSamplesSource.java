@@ -0,0 +1,156 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Represents a source of unsigned 8-bit samples read from an rtl_tcp server, which are the baseband I/Q
+ * pairs of the tuner, at the frequency and the sample rate set by the client: the server first sends
+ * a 12-byte header, made of the magic "RTL0", the type of the tuner and its number of gains,
+ * then streams the samples, while the client may send 5-byte commands made of a code and a parameter.
+ * The samples are read from the socket channel directly into a direct buffer, which is then
+ * decoded in place.
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public final class RtlTcpSamplesSource implements SamplesSource {
+    /** the size of the header sent by the server */
+    static final int HEADER_SIZE = 12;
+    /** the magic beginning the header sent by the server */
+    static final byte[] MAGIC = "RTL0".getBytes(StandardCharsets.US_ASCII);
+    private static final int COMMAND_SIZE = 5;
+    private static final byte SET_FREQUENCY = 0x01, SET_SAMPLE_RATE = 0x02, SET_GAIN_MODE = 0x03, SET_GAIN = 0x04;
+
+    private final SocketChannel channel;
+    private final int tunerType;
+    private final int gainCount;
+    private final ByteBuffer command = ByteBuffer.allocate(COMMAND_SIZE);
+    private ByteBuffer samples = ByteBuffer.allocateDirect(0);
+
+    /**
+     * the constructor of the class, which reads the header sent by the server
+     *
+     * @param channel the blocking channel connected to the server
+     * @throws IOException if the header cannot be read or does not begin with the magic
+     */
+    RtlTcpSamplesSource(SocketChannel channel) throws IOException {
+        Preconditions.checkArgument(channel.isBlocking());
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header) < 0)
+                throw new IOException("connection closed before the end of the rtl_tcp header");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header.get(i) != MAGIC[i])
+                throw new IOException("not an rtl_tcp server");
+        }
+        tunerType = header.getInt(MAGIC.length);
+        gainCount = header.getInt(MAGIC.length + Integer.BYTES);
+    }
+
+    /**
+     * Connects to the rtl_tcp server at the given address
+     *
+     * @param address the address of the server
+     * @return a source reading the samples streamed by the server
+     * @throws IOException in case of input/output error, or if the server is not an rtl_tcp server
+     */
+    public static RtlTcpSamplesSource connect(SocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(Objects.requireNonNull(address));
+        try {
+            return new RtlTcpSamplesSource(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the type of the tuner, as announced by the server
+     */
+    public int tunerType() {
+        return tunerType;
+    }
+
+    /**
+     * @return the number of gains of the tuner, as announced by the server
+     */
+    public int gainCount() {
+        return gainCount;
+    }
+
+    /**
+     * Asks the server to tune to the given frequency
+     *
+     * @param frequencyHz the frequency, in hertz
+     * @throws IOException in case of input/output error
+     */
+    public void setFrequency(int frequencyHz) throws IOException {
+        sendCommand(SET_FREQUENCY, frequencyHz);
+    }
+
+    /**
+     * Asks the server to sample at the given rate
+     *
+     * @param sampleRate the number of I/Q pairs per second
+     * @throws IOException in case of input/output error
+     */
+    public void setSampleRate(int sampleRate) throws IOException {
+        sendCommand(SET_SAMPLE_RATE, sampleRate);
+    }
+
+    /**
+     * Asks the server to use the given gain, or the automatic gain if it is negative
+     *
+     * @param tenthsOfDb the gain, in tenths of decibels
+     * @throws IOException in case of input/output error
+     */
+    public void setGain(int tenthsOfDb) throws IOException {
+        boolean manual = tenthsOfDb >= 0;
+        sendCommand(SET_GAIN_MODE, manual ? 1 : 0);
+        if (manual)
+            sendCommand(SET_GAIN, tenthsOfDb);
+    }
+
+    @Override
+    public ByteBuffer read(int byteCount) throws IOException {
+        Preconditions.checkArgument(byteCount >= 0);
+        if (samples.capacity() < byteCount)
+            samples = ByteBuffer.allocateDirect(byteCount).order(ByteOrder.LITTLE_ENDIAN);
+        samples.clear().limit(byteCount);
+        while (samples.hasRemaining() && channel.read(samples) >= 0) {
+        }
+        return samples.flip();
+    }
+
+    @Override
+    public int available() throws IOException {
+        return channel.socket().getInputStream().available();
+    }
+
+    @Override
+    public SampleFormat format() {
+        return SampleFormat.UNSIGNED_8;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void sendCommand(byte code, int parameter) throws IOException {
+        command.clear();
+        command.put(code).putInt(parameter).flip();
+        while (command.hasRemaining())
+            channel.write(command);
+    }
+}
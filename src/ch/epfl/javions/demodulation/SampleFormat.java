@@ -0,0 +1,98 @@
+package ch.epfl.javions.demodulation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents the format of the raw samples, which are all converted into 12-bit signed samples by the decoder,
+ * and whose power is then computed according to the way they represent the signal: either as real samples of
+ * a signal whose carrier is at a quarter of the sample rate, or as I/Q pairs of a baseband signal, whose
+ * carrier is at 0 Hz
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public enum SampleFormat {
+    /**
+     * unsigned 12-bit real samples, stored in two bytes in little-endian order, as produced by an AirSpy
+     * at 20 million samples per second, the carrier of the signal being at a quarter of this rate
+     */
+    UNSIGNED_12_LE(Short.BYTES, 20_000_000, false) {
+        private static final int CORRECTION = 2048;
+
+        @Override
+        void decode(ByteBuffer bytes, int count, short[] samples, int offset) {
+            int start = bytes.position();
+            for (int i = 0; i < count; i++) {
+                samples[offset + i] = (short) (bytes.getShort(start + i * Short.BYTES) - CORRECTION);
+            }
+        }
+    },
+    /**
+     * unsigned 8-bit samples, as produced by rtl_sdr for interleaved I/Q (cu8), of the baseband signal
+     * of a receiver tuned to 1090 MHz, at 2.4 million I/Q pairs per second
+     */
+    UNSIGNED_8(Byte.BYTES, 4_800_000, true) {
+        @Override
+        void decode(ByteBuffer bytes, int count, short[] samples, int offset) {
+            int start = bytes.position();
+            for (int i = 0; i < count; i++) {
+                samples[offset + i] = UNSIGNED_8_TO_12_BITS[bytes.get(start + i) & 0xFF];
+            }
+        }
+    };
+
+    /**
+     * the 12-bit signed sample corresponding to each unsigned 8-bit sample, whose
+     * center 127.5 is mapped to 0 and whose unit is 16 times the one of a 12-bit sample
+     */
+    private static final short[] UNSIGNED_8_TO_12_BITS = new short[1 << Byte.SIZE];
+
+    static {
+        for (int b = 0; b < UNSIGNED_8_TO_12_BITS.length; b++)
+            UNSIGNED_8_TO_12_BITS[b] = (short) ((2 * b - 255) * 8);
+    }
+
+    private final int bytesPerSample;
+    private final int sampleRate;
+    private final boolean baseband;
+
+    SampleFormat(int bytesPerSample, int sampleRate, boolean baseband) {
+        this.bytesPerSample = bytesPerSample;
+        this.sampleRate = sampleRate;
+        this.baseband = baseband;
+    }
+
+    /**
+     * @return the number of bytes of a sample
+     */
+    public int bytesPerSample() {
+        return bytesPerSample;
+    }
+
+    /**
+     * @return the number of samples per second that the demodulator expects in this format,
+     * i.e. twice the number of I/Q pairs per second for a baseband format
+     */
+    public int sampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return true iff the samples are I/Q pairs of a baseband signal, whose power is the squared
+     * magnitude of each pair, and false if they are real samples of a signal at a quarter of the sample rate
+     */
+    public boolean isBaseband() {
+        return baseband;
+    }
+
+    /**
+     * Converts the given number of samples, starting at the position of the given buffer
+     * and without modifying it, into 12-bit signed samples
+     *
+     * @param bytes   the buffer containing the raw samples
+     * @param count   the number of samples to convert
+     * @param samples the array in which the 12-bit signed samples are placed
+     * @param offset  the index at which the first sample is placed
+     */
+    abstract void decode(ByteBuffer bytes, int count, short[] samples, int offset);
+}
@@ -1,10 +1,10 @@
 package ch.epfl.javions.demodulation;
 
-import ch.epfl.javions.ByteString;
 import ch.epfl.javions.Preconditions;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -16,10 +16,9 @@ import java.util.Objects;
  * @author Andrei Pana 361249
  */
 public final class SamplesDecoder {
-    private final InputStream stream;
+    private final SamplesSource source;
+    private final SampleFormat format;
     private final int batchSize;
-    private byte[] octets;
-    private static final int CORRECTION = 2048;
 
     /**
      * @param stream, batchSize
@@ -29,30 +28,81 @@ public final class SamplesDecoder {
      * @throws NullPointerException     if the received stream is null
      */
     public SamplesDecoder(InputStream stream, int batchSize) {
+        this(SamplesSource.of(stream), batchSize);
+    }
+
+    /**
+     * @param source, batchSize
+     *                The source of the bytes received by the decoder,
+     *                whose samples are decoded according to its format
+     *                Size of the batch that is to be decoded
+     * @throws IllegalArgumentException if batchSize is 0 or negative
+     * @throws NullPointerException     if the received source is null
+     */
+    public SamplesDecoder(SamplesSource source, int batchSize) {
         Preconditions.checkArgument(batchSize > 0);
-        Objects.requireNonNull(stream);
-        this.stream = stream;
+        this.source = Objects.requireNonNull(source);
+        this.format = source.format();
         this.batchSize = batchSize;
     }
 
     /**
-     * @param batch reads from the stream passed to the constructor
+     * @param batch reads from the source passed to the constructor
      *              the number of bytes corresponding to a batch,
      *              then converts these bytes into signed samples,
      *              which are placed in the array passed as argument
      * @return the size of the batch if it was big enough
      * for all the octets to be read, and the number of octets
-     * that have been read divided by 2 and rounded to floor
+     * that have been read divided by the size of a sample and rounded to floor
      * otherwise
      * @throws IOException
      */
     public int readBatch(short[] batch) throws IOException {
         Preconditions.checkArgument(batchSize == batch.length);
-        octets = stream.readNBytes(batchSize * 2);
-        for (int i = 0; i < octets.length; i += 2) {
-            var bytes = new ByteString(new byte[]{octets[i + 1], octets[i]});
-            batch[i / 2] = (short) (bytes.bytesInRange(0, 2) - CORRECTION);
-        }
-        return octets.length / 2;
+        return readBatch(batch, 0);
+    }
+
+    /**
+     * Same as readBatch(short[]), but places the samples in the given array
+     * starting at the given offset
+     *
+     * @param batch  the array in which the samples are placed
+     * @param offset the index at which the first sample is placed
+     * @return the number of samples that have been placed in the array
+     * @throws IOException               in case of input/output error
+     * @throws IndexOutOfBoundsException if a batch does not fit in the array at the given offset
+     */
+    int readBatch(short[] batch, int offset) throws IOException {
+        return readBatch(batch, offset, batchSize);
+    }
+
+    /**
+     * Same as readBatch(short[], int), but reads at most the given number of samples
+     *
+     * @param batch  the array in which the samples are placed
+     * @param offset the index at which the first sample is placed
+     * @param count  the number of samples to read, at most the size of a batch
+     * @return the number of samples that have been placed in the array, which is smaller
+     * than the given count only once the end of the source has been reached
+     * @throws IOException               in case of input/output error
+     * @throws IllegalArgumentException  if the count is negative or greater than the size of a batch
+     * @throws IndexOutOfBoundsException if the samples do not fit in the array at the given offset
+     */
+    int readBatch(short[] batch, int offset, int count) throws IOException {
+        Preconditions.checkArgument(0 <= count && count <= batchSize);
+        Objects.checkFromIndexSize(offset, count, batch.length);
+        int bytesPerSample = format.bytesPerSample();
+        ByteBuffer octets = source.read(count * bytesPerSample);
+        int read = octets.remaining() / bytesPerSample;
+        format.decode(octets, read, batch, offset);
+        return read;
+    }
+
+    /**
+     * @return an estimate of the number of samples that can be read without blocking
+     * @throws IOException in case of input/output error
+     */
+    int available() throws IOException {
+        return source.available() / format.bytesPerSample();
     }
 }
@@ -0,0 +1,61 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Represents a source of raw sample bytes read by the demodulation chain
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+public interface SamplesSource extends Closeable {
+
+    /**
+     * Reads at most the given number of bytes from the source
+     *
+     * @param byteCount the maximum number of bytes to read
+     * @return a little-endian buffer whose remaining bytes are the ones that have been read,
+     * which is only valid until the next call to this method; it has no remaining bytes
+     * once the end of the source has been reached
+     * @throws IOException in case of input/output error
+     */
+    ByteBuffer read(int byteCount) throws IOException;
+
+    /**
+     * @return an estimate of the number of bytes that can be read without blocking,
+     * which is 0 if the source cannot tell
+     * @throws IOException in case of input/output error
+     */
+    default int available() throws IOException {
+        return 0;
+    }
+
+    /**
+     * @return the format of the samples of the source
+     */
+    default SampleFormat format() {
+        return SampleFormat.UNSIGNED_12_LE;
+    }
+
+    /**
+     * @param stream the input stream containing the samples
+     * @return a source reading its bytes from the given stream
+     * @throws NullPointerException if the stream is null
+     */
+    static SamplesSource of(InputStream stream) {
+        return of(stream, SampleFormat.UNSIGNED_12_LE);
+    }
+
+    /**
+     * @param stream the input stream containing the samples
+     * @param format the format of the samples of the stream
+     * @return a source reading its bytes, in the given format, from the given stream
+     * @throws NullPointerException if the stream or the format is null
+     */
+    static SamplesSource of(InputStream stream, SampleFormat format) {
+        return new StreamSamplesSource(stream, format);
+    }
+}
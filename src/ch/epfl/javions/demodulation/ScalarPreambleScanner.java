@@ -0,0 +1,79 @@
+package ch.epfl.javions.demodulation;
+
+import static ch.epfl.javions.demodulation.PreambleScanner.peakSum;
+import static ch.epfl.javions.demodulation.PreambleScanner.valleySum;
+
+/**
+ * Represents a preamble scanner testing the positions one at a time
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+final class ScalarPreambleScanner implements PreambleScanner {
+    private int peakCount;
+
+    @Override
+    public int scan(int[] power, int base, int from, int to, int previousSum, int[] candidates, int count) {
+        long counts = scanRange(power, base, to, from, previousSum, candidates, count);
+        peakCount = peakCount(counts);
+        return candidateCount(counts);
+    }
+
+    @Override
+    public int peakCount() {
+        return peakCount;
+    }
+
+    /**
+     * Scans the positions from start to to, placing the candidates found after the given count
+     *
+     * @param power       the power samples
+     * @param base        the index to which the candidates are relative
+     * @param to          the index following the last position to scan
+     * @param start       the index of the first position to scan
+     * @param previousSum the peak sum of the position preceding the first one
+     * @param candidates  the array in which the candidates are placed
+     * @param count       the number of candidates already placed in the array
+     * @return the total number of candidates and the number of peaks found, packed by counts(int, int)
+     */
+    static long scanRange(int[] power, int base, int to, int start, int previousSum, int[] candidates, int count) {
+        int peaks = 0;
+        int currentSum = peakSum(power, start);
+        for (int i = start; i < to; i++) {
+            int afterSum = peakSum(power, i + 1);
+            if (currentSum > previousSum && currentSum > afterSum) {
+                peaks++;
+                if (currentSum >= 2 * valleySum(power, i))
+                    candidates[count++] = i - base;
+            }
+            previousSum = currentSum;
+            currentSum = afterSum;
+        }
+        return counts(count, peaks);
+    }
+
+    /**
+     * @param candidateCount the number of candidates
+     * @param peakCount      the number of peaks
+     * @return the two counts packed in a long
+     */
+    static long counts(int candidateCount, int peakCount) {
+        return (long) peakCount << Integer.SIZE | candidateCount;
+    }
+
+    /**
+     * @param counts the counts packed by counts(int, int)
+     * @return the number of candidates
+     */
+    static int candidateCount(long counts) {
+        return (int) counts;
+    }
+
+    /**
+     * @param counts the counts packed by counts(int, int)
+     * @return the number of peaks
+     */
+    static int peakCount(long counts) {
+        return (int) (counts >>> Integer.SIZE);
+    }
+}
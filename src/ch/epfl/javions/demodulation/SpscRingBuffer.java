@@ -0,0 +1,99 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Represents a bounded lock-free queue, which may only be used by a single producer thread
+ * and a single consumer thread
+ *
+ * @param <E> the type of the elements of the queue
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+final class SpscRingBuffer<E> {
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    private final E[] elements;
+    private final int mask;
+    /** the index of the next element to be removed, only written by the consumer */
+    private final AtomicLong head = new AtomicLong();
+    /** the index of the next element to be added, only written by the producer */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * the constructor of the class
+     *
+     * @param capacity the capacity of the queue
+     * @throws IllegalArgumentException if the capacity is not a strictly positive power of two
+     */
+    @SuppressWarnings("unchecked")
+    SpscRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1);
+        elements = (E[]) new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds the given element at the end of the queue, if it is not full; only called by the producer
+     *
+     * @param element the element
+     * @return true iff the element has been added
+     */
+    boolean offer(E element) {
+        long t = tail.get();
+        if (t - head.get() == elements.length)
+            return false;
+        elements[(int) t & mask] = element;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes the element at the head of the queue, if there is one; only called by the consumer
+     *
+     * @return the element, or null if the queue is empty
+     */
+    E poll() {
+        long h = head.get();
+        if (h == tail.get())
+            return null;
+        int i = (int) h & mask;
+        E element = elements[i];
+        elements[i] = null;
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Adds the given element at the end of the queue, waiting for it not to be full
+     *
+     * @param element the element
+     */
+    void put(E element) {
+        for (int idle = 0; !offer(element); idle++)
+            idle(idle);
+    }
+
+    /**
+     * Removes the element at the head of the queue, waiting for it not to be empty
+     *
+     * @return the element
+     */
+    E take() {
+        E element;
+        for (int idle = 0; (element = poll()) == null; idle++)
+            idle(idle);
+        return element;
+    }
+
+    private static void idle(int idle) {
+        if (idle < SPINS_BEFORE_PARKING)
+            Thread.onSpinWait();
+        else
+            LockSupport.parkNanos(PARK_NANOS);
+    }
+}
@@ -0,0 +1,58 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Represents a source of samples read from an input stream,
+ * through a buffer that is reused from one read to the next
+ *
+ * @author Andrei Pana 361249
+ * @author David Fota 355816
+ */
+final class StreamSamplesSource implements SamplesSource {
+    private final InputStream stream;
+    private final SampleFormat format;
+    private byte[] octets = new byte[0];
+    private ByteBuffer octetsView = ByteBuffer.wrap(octets);
+
+    /**
+     * the constructor of the class
+     *
+     * @param stream the input stream
+     * @param format the format of the samples of the stream
+     * @throws NullPointerException if the stream or the format is null
+     */
+    StreamSamplesSource(InputStream stream, SampleFormat format) {
+        this.stream = Objects.requireNonNull(stream);
+        this.format = Objects.requireNonNull(format);
+    }
+
+    @Override
+    public ByteBuffer read(int byteCount) throws IOException {
+        if (octets.length < byteCount) {
+            octets = new byte[byteCount];
+            octetsView = ByteBuffer.wrap(octets).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int count = stream.readNBytes(octets, 0, byteCount);
+        return octetsView.limit(count).position(0);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return stream.available();
+    }
+
+    @Override
+    public SampleFormat format() {
+        return format;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
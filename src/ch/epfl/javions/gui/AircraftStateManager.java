@@ -1,5 +1,6 @@
 package ch.epfl.javions.gui;
 
+import ch.epfl.javions.GeoPos;
 import ch.epfl.javions.adsb.AircraftStateAccumulator;
 import ch.epfl.javions.adsb.Message;
 import ch.epfl.javions.aircraft.AircraftDatabase;
@@ -26,6 +27,7 @@ public final class AircraftStateManager
     private final ObservableSet<ObservableAircraftState> states;
     private final ObservableSet<ObservableAircraftState> statesNonModifiable;
     private final AircraftDatabase database;
+    private final GeoPos receiverPosition;
     private long lastProcessedTimeStamp;
 
     /**
@@ -33,7 +35,18 @@ public final class AircraftStateManager
      * @param database the database
      */
     public AircraftStateManager(AircraftDatabase database){
+        this(database, null);
+    }
+
+    /**
+     * Constructor for the AircraftStateManager of a receiver at a known position, which is used
+     * to locate the aircraft from their first position message
+     * @param database the database
+     * @param receiverPosition the position of the receiver, or null if unknown
+     */
+    public AircraftStateManager(AircraftDatabase database, GeoPos receiverPosition){
         this.database = database;
+        this.receiverPosition = receiverPosition;
         states = observableSet();
         statesNonModifiable = unmodifiableObservableSet(states);
         map = new HashMap<>();
@@ -44,11 +57,21 @@ public final class AircraftStateManager
      * @param message the message
      */
     public void updateWithMessage(Message message) throws IOException{
+        updateWithMessage(message, Double.NaN);
+    }
+
+    /**
+     * Updates the state of the aircraft with the message, received with the given signal level
+     * @param message the message
+     * @param signalLevel the signal level of the message in dBFS, or NaN if unknown
+     */
+    public void updateWithMessage(Message message, double signalLevel) throws IOException{
         IcaoAddress address = message.icaoAddress();
         lastProcessedTimeStamp = message.timeStampNs();
         map.putIfAbsent(address,
-                new AircraftStateAccumulator<>(new ObservableAircraftState(address, database.get(address))));
-        map.get(address).update(message);
+                new AircraftStateAccumulator<>(new ObservableAircraftState(address, database.get(address)),
+                        receiverPosition));
+        map.get(address).update(message, signalLevel);
         if(map.get(address).stateSetter().getPosition() != null){
             states.add(map.get(address).stateSetter());
         }
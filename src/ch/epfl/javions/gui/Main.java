@@ -1,11 +1,17 @@
 package ch.epfl.javions.gui;
 
 import ch.epfl.javions.ByteString;
+import ch.epfl.javions.GeoPos;
+import ch.epfl.javions.Units;
+import ch.epfl.javions.adsb.DuplicateFilter;
 import ch.epfl.javions.adsb.Message;
 import ch.epfl.javions.adsb.MessageParser;
 import ch.epfl.javions.adsb.RawMessage;
 import ch.epfl.javions.aircraft.AircraftDatabase;
 import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.demodulation.SampleFormat;
+import ch.epfl.javions.demodulation.RtlTcpSamplesSource;
+import ch.epfl.javions.demodulation.SamplesSource;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.beans.binding.Bindings;
@@ -17,7 +23,10 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
+import javax.management.JMException;
+
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
@@ -47,6 +56,23 @@ public class Main extends Application
     private static final String TILE_CACHE = "tile-cache";
     private static final String AIRCRAFT_FOLDER_ZIPPED = "/aircraft.zip";
     private static final String TITLE = "Javions";
+    private static final String PIPELINED_PARAMETER = "pipelined";
+    private static final String FORMAT_PARAMETER = "format";
+    private static final String LOW_LATENCY_PARAMETER = "low-latency";
+    private static final String CU8_FORMAT = "cu8";
+    private static final String STANDARD_INPUT_NAME = "standard-input";
+    private static final String RTL_TCP_PARAMETER = "rtl-tcp";
+    private static final String GAIN_PARAMETER = "gain";
+    private static final int AUTOMATIC_GAIN = -1;
+    private static final String RECEIVER_PARAMETER = "receiver";
+    private static final int ADSB_FREQUENCY_HZ = 1_090_000_000;
+    private static final long DUPLICATE_WINDOW_NS = 100_000_000L;
+    private static final int DUPLICATE_FILTER_CAPACITY = 1 << 12;
+
+    /**
+     * A message, along with the signal level at which it was received, NaN if unknown
+     */
+    private record ReceivedMessage(Message message, double signalLevel) {}
 
     /**
      * Main method of the application.
@@ -63,31 +89,41 @@ public class Main extends Application
     @Override
     public void start(Stage primaryStage) throws Exception {
 
-        ConcurrentLinkedQueue<Message> messageQueue = new ConcurrentLinkedQueue<>();
-        AircraftStateManager asm = new AircraftStateManager(database());
+        ConcurrentLinkedQueue<ReceivedMessage> messageQueue = new ConcurrentLinkedQueue<>();
+        AircraftStateManager asm = new AircraftStateManager(database(),
+                receiverPosition(getParameters().getNamed().get(RECEIVER_PARAMETER)));
         StatusLineController slc = new StatusLineController();
 
         Scene scene = createScene(asm, slc);
         configurePrimaryStage(primaryStage, scene);
 
-        Thread thread;
-        if(getParameters().getRaw().isEmpty()) {
-            Supplier<Message> supplier = stantardInputSupplier();
-            thread = new Thread(() -> getFromSupplier(supplier, messageQueue));
+        List<Supplier<ReceivedMessage>> suppliers;
+        if(getParameters().getUnnamed().isEmpty()) {
+            boolean pipelined = Boolean.parseBoolean(getParameters().getNamed().get(PIPELINED_PARAMETER));
+            SampleFormat format = sampleFormat(getParameters().getNamed().get(FORMAT_PARAMETER));
+            boolean lowLatency = Boolean.parseBoolean(getParameters().getNamed().get(LOW_LATENCY_PARAMETER));
+            String rtlTcpServer = getParameters().getNamed().get(RTL_TCP_PARAMETER);
+            if (rtlTcpServer != null && pipelined)
+                throw new IllegalArgumentException("--pipelined=true cannot be used with --rtl-tcp");
+            suppliers = rtlTcpServer != null
+                    ? rtlTcpSuppliers(rtlTcpServer, gain(getParameters().getNamed().get(GAIN_PARAMETER)), lowLatency)
+                    : List.of(stantardInputSupplier(pipelined, format, lowLatency));
         } else {
-            Supplier<Message> supplier = fromFileInputSupplier(getParameters().getRaw().get(0));
-            thread = new Thread(() -> getFromSupplier(supplier, messageQueue));
+            suppliers = List.of(fromFileInputSupplier(getParameters().getUnnamed().get(0)));
+        }
+        for (Supplier<ReceivedMessage> supplier : suppliers) {
+            Thread thread = new Thread(() -> getFromSupplier(supplier, messageQueue));
+            thread.setDaemon(true);
+            thread.start();
         }
-        thread.setDaemon(true);
-        thread.start();
         new AnimationTimer() {
             private long lastPurge = 0L;
             @Override
             public void handle(long now) {
                 try{
                     while(!messageQueue.isEmpty()){
-                        Message msg = messageQueue.remove();
-                        asm.updateWithMessage(msg);
+                        ReceivedMessage msg = messageQueue.remove();
+                        asm.updateWithMessage(msg.message(), msg.signalLevel());
                         slc.getMessageCountProperty().set(slc.getMessageCountProperty().get() + 1);
                     }
                     if(now - lastPurge >= PURGE_INTERVAL){
@@ -101,6 +137,34 @@ public class Main extends Application
         }.start();
 
     }
+    /**
+     * Parses the position of the receiver.
+     * @param position the longitude and latitude of the receiver in degrees, separated by a comma,
+     *                 as given by the --receiver=longitude,latitude parameter, or null
+     * @return the position of the receiver, or null if not given
+     * @throws IllegalArgumentException if the position is not two numbers separated by a comma, or if
+     *         the longitude is not between -180 (included) and 180 (excluded) or the latitude between -90 and 90
+     */
+    private static GeoPos receiverPosition(String position) {
+        if (position == null)
+            return null;
+        String usage = "--receiver expects longitude,latitude in degrees, not " + position;
+        int comma = position.indexOf(',');
+        if (comma < 0)
+            throw new IllegalArgumentException(usage);
+        double longitude, latitude;
+        try {
+            longitude = Double.parseDouble(position.substring(0, comma));
+            latitude = Double.parseDouble(position.substring(comma + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(usage, e);
+        }
+        if (!(longitude >= -180 && longitude < 180 && latitude >= -90 && latitude <= 90))
+            throw new IllegalArgumentException("--receiver position out of range: " + position);
+        return new GeoPos((int) Math.rint(Units.convert(longitude, Units.Angle.DEGREE, Units.Angle.T32)),
+                (int) Math.rint(Units.convert(latitude, Units.Angle.DEGREE, Units.Angle.T32)));
+    }
+
     /**
      * Reads the messages from the file.
      * @param name the name of the file
@@ -129,20 +193,150 @@ public class Main extends Application
 
     /**
      * Creates supplier for the standard input.
+     * @param pipelined true iff the samples are read and their power computed on threads of their own,
+     *                  as requested by the --pipelined=true parameter
+     * @param format    the format of the samples, unsigned 8-bit ones being requested
+     *                  by the --format=cu8 parameter
+     * @param lowLatency true iff the samples are demodulated as they arrive instead of by large batches,
+     *                  as requested by the --low-latency=true parameter; ignored if pipelined
      * @return the supplier
      * @throws IOException if an I/O error occurs
+     * @throws JMException if the statistics of the demodulator cannot be published through JMX
+     */
+    private static Supplier<ReceivedMessage> stantardInputSupplier(boolean pipelined, SampleFormat format,
+                                                           boolean lowLatency)
+            throws IOException, JMException {
+        AdsbDemodulator adsb = pipelined
+                ? AdsbDemodulator.pipelined(System.in, format)
+                : new AdsbDemodulator(SamplesSource.of(System.in, format), lowLatency);
+        adsb.statistics().register(STANDARD_INPUT_NAME);
+        return demodulatorSupplier(adsb, null);
+    }
+
+    /**
+     * Creates the suppliers for one or several rtl_tcp servers, each tuned to the ADS-B frequency, so that
+     * they stream the baseband I/Q pairs the demodulator expects, at the rate of the unsigned 8-bit format,
+     * 2.4 million pairs per second, which the RTL-SDR dongles reach.
+     * When there are several servers, which are supposed to be receivers covering overlapping areas, the copies
+     * of a frame received by several of them are dropped where their messages merge, by a shared filter.
+     * @param servers the hosts and ports of the servers, separated by a colon, the servers being separated
+     *                by commas, as given by the --rtl-tcp=host:port[,host:port...] parameter
+     * @param gain the gain of the tuners in tenths of decibels, or AUTOMATIC_GAIN
+     * @param lowLatency true iff the samples are demodulated as they arrive instead of by large batches
+     * @return the suppliers, one per server, to be read on threads of their own
+     * @throws IllegalArgumentException if a server is not of the form host:port
+     * @throws IOException if an I/O error occurs
+     * @throws JMException if the statistics of a demodulator cannot be published through JMX,
+     *         for example if a server is given twice
+     */
+    private static List<Supplier<ReceivedMessage>> rtlTcpSuppliers(String servers, int gain, boolean lowLatency)
+            throws IOException, JMException {
+        String[] addresses = servers.split(",", -1);
+        int sampleRate = SampleFormat.UNSIGNED_8.sampleRate() / 2;
+        List<RtlTcpSamplesSource> sources = new ArrayList<>();
+        for (String server : addresses) {
+            RtlTcpSamplesSource source = RtlTcpSamplesSource.connect(serverAddress(server));
+            source.setSampleRate(sampleRate);
+            source.setGain(gain);
+            source.setFrequency(ADSB_FREQUENCY_HZ);
+            sources.add(source);
+        }
+        DuplicateFilter duplicateFilter = addresses.length > 1
+                ? new DuplicateFilter(DUPLICATE_WINDOW_NS, DUPLICATE_FILTER_CAPACITY)
+                : null;
+        List<Supplier<ReceivedMessage>> suppliers = new ArrayList<>();
+        for (int i = 0; i < addresses.length; i++) {
+            AdsbDemodulator adsb = new AdsbDemodulator(sources.get(i), lowLatency);
+            adsb.statistics().register(RTL_TCP_PARAMETER + ":" + addresses[i]);
+            suppliers.add(demodulatorSupplier(adsb, duplicateFilter));
+        }
+        return suppliers;
+    }
+
+    /**
+     * Parses the format of the samples, warning that unsigned 8-bit samples must be the baseband I/Q pairs
+     * of a receiver tuned to 1090 MHz, at the rate of the format, which cannot be checked on a raw stream.
+     * @param format the format, as given by the --format parameter, or null
+     * @return the format of the samples, unsigned 12-bit ones if not given
+     * @throws IllegalArgumentException if the format is not known
      */
-    private static Supplier<Message> stantardInputSupplier() throws IOException {
-        AdsbDemodulator adsb = new AdsbDemodulator(System.in);
+    private static SampleFormat sampleFormat(String format) {
+        if (format == null)
+            return SampleFormat.UNSIGNED_12_LE;
+        if (!CU8_FORMAT.equals(format))
+            throw new IllegalArgumentException("--format only accepts " + CU8_FORMAT + ", not " + format);
+        System.err.println("Warning: " + CU8_FORMAT + " samples must be baseband I/Q pairs tuned to "
+                + ADSB_FREQUENCY_HZ + " Hz, at " + SampleFormat.UNSIGNED_8.sampleRate() / 2
+                + " pairs per second (rtl_sdr -f " + ADSB_FREQUENCY_HZ + " -s "
+                + SampleFormat.UNSIGNED_8.sampleRate() / 2 + "), other rates will not be decoded");
+        return SampleFormat.UNSIGNED_8;
+    }
+
+    /**
+     * Parses the address of an rtl_tcp server.
+     * @param server the host and port of the server, separated by a colon
+     * @return the address of the server
+     * @throws IllegalArgumentException if the server is not of the form host:port, with a valid port
+     */
+    private static InetSocketAddress serverAddress(String server) {
+        int colon = server.lastIndexOf(':');
+        if (colon <= 0 || colon == server.length() - 1)
+            throw new IllegalArgumentException("--rtl-tcp expects host:port, not " + server);
+        int port;
+        try {
+            port = Integer.parseInt(server.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid port in --rtl-tcp=" + server, e);
+        }
+        if (port <= 0 || port > 0xFFFF)
+            throw new IllegalArgumentException("invalid port in --rtl-tcp=" + server);
+        return new InetSocketAddress(server.substring(0, colon), port);
+    }
+
+    /**
+     * Parses the gain of the tuner.
+     * @param gain the gain in decibels, as given by the --gain parameter, or null
+     * @return the gain in tenths of decibels, or AUTOMATIC_GAIN if not given
+     * @throws IllegalArgumentException if the gain is not a non-negative number
+     */
+    private static int gain(String gain) {
+        if (gain == null)
+            return AUTOMATIC_GAIN;
+        try {
+            double decibels = Double.parseDouble(gain);
+            if (decibels >= 0 && decibels < Integer.MAX_VALUE / 10)
+                return (int) Math.rint(decibels * 10);
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException("--gain expects a non-negative number of decibels, not " + gain);
+    }
+
+    /**
+     * Creates supplier for the messages of the given demodulator, merged with the ones of other
+     * demodulators through the given filter, if any, which drops the copies of a frame received
+     * within DUPLICATE_WINDOW_NS of each other before parsing them. The copies are compared at the time
+     * the demodulators return them, given by System.nanoTime, as the time stamps of the messages are
+     * counted in the samples of each receiver, from its own start and at the rate of its own clock,
+     * whereas a frame is demodulated by all of them within a few milliseconds. A single demodulator never finds
+     * a frame twice, since it skips the samples of a message once found, so the filter is only needed,
+     * and only given, when several demodulators receive the same aircraft.
+     * @param adsb the demodulator
+     * @param duplicateFilter the filter shared by the suppliers of the merged demodulators, or null
+     * @return the supplier
+     */
+    private static Supplier<ReceivedMessage> demodulatorSupplier(AdsbDemodulator adsb,
+                                                                 DuplicateFilter duplicateFilter) {
         return () -> {
             try {
                 while(true) {
                     RawMessage rmsg = adsb.nextMessage();
                     if (rmsg == null)
                         return null;
+                    if (duplicateFilter != null && isDuplicate(duplicateFilter, rmsg))
+                        continue;
                     Message msg = MessageParser.parse(rmsg);
                     if(msg != null)
-                        return msg;
+                        return new ReceivedMessage(msg, rmsg.signalLevel());
                 }
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
@@ -150,13 +344,25 @@ public class Main extends Application
         };
     }
 
+    /**
+     * Determines whether the given message is a duplicate, the filter being shared by several threads.
+     * @param duplicateFilter the filter
+     * @param rmsg the message
+     * @return true iff the message is a copy of a frame already received by another demodulator
+     */
+    private static boolean isDuplicate(DuplicateFilter duplicateFilter, RawMessage rmsg) {
+        synchronized (duplicateFilter) {
+            return duplicateFilter.isDuplicate(rmsg, System.nanoTime());
+        }
+    }
+
     /**
      * Creates supplier for the file input.
      * @param name the name of the file
      * @return the supplier
      * @throws IOException if an I/O error occurs
      */
-    private static Supplier<Message> fromFileInputSupplier(String name) throws IOException {
+    private static Supplier<ReceivedMessage> fromFileInputSupplier(String name) throws IOException {
         long start_time = System.nanoTime();
         List<Message> messages = readMessages(name);
         Iterator<Message> iterator = messages.iterator();
@@ -171,7 +377,7 @@ public class Main extends Application
                 long currentTime = System.nanoTime() - start_time;
                 if(currentTime < messsageTimeStamp)
                     sleep((messsageTimeStamp - currentTime) / NANO_TO_MILI);
-                return msg;
+                return new ReceivedMessage(msg, Double.NaN);
             } catch(InterruptedException ignored) {
                 throw new Error();
             }
@@ -183,9 +389,10 @@ public class Main extends Application
      * @param supplier the supplier
      * @param messageQueue the queue
      */
-    private void getFromSupplier(Supplier<Message> supplier, ConcurrentLinkedQueue<Message> messageQueue){
+    private void getFromSupplier(Supplier<ReceivedMessage> supplier,
+                                 ConcurrentLinkedQueue<ReceivedMessage> messageQueue){
         while(true){
-            Message msg = supplier.get();
+            ReceivedMessage msg = supplier.get();
             if(msg != null)
                 messageQueue.add(msg);
         }
@@ -45,6 +45,8 @@ public final class ObservableAircraftState implements AircraftStateSetter
      * altitude : the altitude of the aircraft
      * velocity : the velocity of the aircraft
      * trackOrHeading : the track or heading of the aircraft
+     * signalLevel : the rolling signal level of the messages of the aircraft, in dBFS
+     * messageRate : the rolling number of messages per second of the aircraft
      */
     private final LongProperty lastMessageTimeStampNs = new SimpleLongProperty();
     private final IntegerProperty category = new SimpleIntegerProperty();
@@ -55,6 +57,8 @@ public final class ObservableAircraftState implements AircraftStateSetter
     private final DoubleProperty altitude = new SimpleDoubleProperty(Double.NaN);
     private final DoubleProperty velocity = new SimpleDoubleProperty(Double.NaN);
     private final DoubleProperty trackOrHeading = new SimpleDoubleProperty();
+    private final DoubleProperty signalLevel = new SimpleDoubleProperty(Double.NaN);
+    private final DoubleProperty messageRate = new SimpleDoubleProperty();
     /**
      * Getters for the properties of the ObservableAircraftState
      */
@@ -82,6 +86,12 @@ public final class ObservableAircraftState implements AircraftStateSetter
     public ReadOnlyDoubleProperty trackOrHeadingProperty(){
         return trackOrHeading;
     }
+    public ReadOnlyDoubleProperty signalLevelProperty(){
+        return signalLevel;
+    }
+    public ReadOnlyDoubleProperty messageRateProperty(){
+        return messageRate;
+    }
     public IcaoAddress getAddress() {
         return this.address;
     }
@@ -110,6 +120,12 @@ public final class ObservableAircraftState implements AircraftStateSetter
     public double getTrackOrHeading(){
         return trackOrHeading.get();
     }
+    public double getSignalLevel(){
+        return signalLevel.get();
+    }
+    public double getMessageRate(){
+        return messageRate.get();
+    }
     @Override
     public void setLastMessageTimeStampNs(long timeStampNs) {
         lastMessageTimeStampNs.set(timeStampNs);
@@ -177,6 +193,24 @@ public final class ObservableAircraftState implements AircraftStateSetter
         this.trackOrHeading.set(trackOrHeading);
     }
 
+    /**
+     * Sets the rolling signal level of the messages of the aircraft.
+     * @param signalLevel the signal level in dBFS
+     */
+    @Override
+    public void setSignalLevel(double signalLevel) {
+        this.signalLevel.set(signalLevel);
+    }
+
+    /**
+     * Sets the rolling rate of the messages of the aircraft.
+     * @param messageRate the number of messages per second
+     */
+    @Override
+    public void setMessageRate(double messageRate) {
+        this.messageRate.set(messageRate);
+    }
+
     /**
      * Updates the trajectory of the aircraft.
      * If the altitude is different from the last one, it is added to the trajectory.